@@ -28,6 +28,12 @@ public interface PropertyServiceClient {
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate);
 
+    @GetMapping("/api/properties/{propertyId}/availability/price")
+    PriceCalculationResult getPriceQuote(
+            @PathVariable Long propertyId,
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate);
+
     @GetMapping("/api/properties/{propertyId}/availability/price-check")
     PriceCalculationResult calculatePrice(
             @PathVariable Long propertyId,
@@ -55,13 +55,26 @@ public class BookingService {
         // 2. Valider la propriété (basique: capacité, dates min/max)
         validatePropertyForBooking(property, request);
 
-        // 3. Calculer le montant total manuellement pour garantir l'intégrité (Backend-Calculated)
+        // 3. Montant total calculé par Property-Service (nuit par nuit, multiplicateurs du calendrier inclus)
         long numberOfNights = ChronoUnit.DAYS.between(request.getCheckIn(), request.getCheckOut());
         if (numberOfNights <= 0) {
             throw new IllegalArgumentException("Invalid date range: check-out must be after check-in");
         }
 
-        BigDecimal totalPrice = property.getPricePerNight().multiply(BigDecimal.valueOf(numberOfNights));
+        BigDecimal totalPrice;
+        try {
+            PriceCalculationResult quote = propertyServiceClient.getPriceQuote(
+                    request.getPropertyId(), request.getCheckIn(), request.getCheckOut());
+
+            if (quote == null || quote.getTotalPrice() == null) {
+                throw new ServiceIntegrationException("Property-Service did not return a price quote");
+            }
+
+            totalPrice = quote.getTotalPrice();
+        } catch (Exception e) {
+            log.error("❌ Failed to get price quote from Property-Service: {}", e.getMessage());
+            throw new ServiceIntegrationException("Could not price booking: " + e.getMessage());
+        }
         BigDecimal securityDeposit = property.getSecurityDeposit();
 
         // 3.5 Vérifier les conflits de dates locaux avant de tenter de verrouiller
@@ -0,0 +1,29 @@
+-- Schéma de l'arbre d'origine, tel que ddl-auto le créait. Une base existante est reprise
+-- en version 1 (baseline-version) : ce script ne s'exécute que sur une base vide, les
+-- changements ultérieurs passent par des migrations incrémentales (V2+).
+
+CREATE TABLE bookings (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    property_id             BIGINT          NOT NULL,
+    tenant_id               BIGINT          NOT NULL,
+    tenant_wallet_address   VARCHAR(255)    NOT NULL,
+    owner_id                BIGINT          NOT NULL,
+    owner_wallet_address    VARCHAR(255)    NOT NULL,
+    check_in                DATE            NOT NULL,
+    check_out               DATE            NOT NULL,
+    number_of_guests        INTEGER         NOT NULL,
+    total_price             NUMERIC(38, 18) NOT NULL,
+    security_deposit        NUMERIC(38, 18) NOT NULL,
+    status                  VARCHAR(255)    NOT NULL,
+    lock_token              VARCHAR(255)    NOT NULL,
+    payment_tx_hash         VARCHAR(255),
+    blockchain_rental_id    BIGINT,
+    escrow_contract_address VARCHAR(255),
+    cancellation_reason     VARCHAR(255),
+    created_at              TIMESTAMP(6)    NOT NULL,
+    confirmed_at            TIMESTAMP(6),
+    cancelled_at            TIMESTAMP(6),
+    completed_at            TIMESTAMP(6),
+    payment_confirmed_at    TIMESTAMP(6),
+    CONSTRAINT uk_bookings_payment_tx_hash UNIQUE (payment_tx_hash)
+);
@@ -0,0 +1,21 @@
+-- Index des finders les plus sollicités : ddl-auto ne crée que la clé primaire et les contraintes uniques
+
+-- BookingRepository.findConflictingBookings / findByPropertyId
+CREATE INDEX IF NOT EXISTS idx_bookings_property_status_dates
+    ON bookings (property_id, status, check_in, check_out);
+
+-- BookingRepository.findByTenantId / countByTenantId(AndStatus)
+CREATE INDEX IF NOT EXISTS idx_bookings_tenant_id
+    ON bookings (tenant_id);
+
+-- BookingRepository.findByOwnerId / countByOwnerIdAndStatus / sumRevenueByOwnerId
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_id_status
+    ON bookings (owner_id, status);
+
+-- ScheduledTasks : findExpiredPendingBookings et findByStatus
+CREATE INDEX IF NOT EXISTS idx_bookings_status_created_at
+    ON bookings (status, created_at);
+
+-- BookingRepository.findByLockToken (confirmation et libération par Property-Service)
+CREATE INDEX IF NOT EXISTS idx_bookings_lock_token
+    ON bookings (lock_token);
@@ -0,0 +1,75 @@
+package com.example.bookingservice.migration;
+
+import com.example.bookingservice.TestcontainersConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Les finders de BookingRepository passent par les index de V2 sur un volume réaliste :
+ * les données générées et le plan (EXPLAIN FORMAT JSON) sont annulés en fin de test.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Transactional
+class RepositoryIndexUsageTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 200k réservations : 5k propriétés, 20k locataires, 2k propriétaires, 1 % en attente de paiement
+    @BeforeEach
+    void seedBookings() {
+        jdbcTemplate.execute("""
+                INSERT INTO bookings (property_id, tenant_id, tenant_wallet_address, owner_id, owner_wallet_address,
+                                      check_in, check_out, number_of_guests, total_price, security_deposit,
+                                      status, lock_token, created_at)
+                SELECT g % 5000, g % 20000, '0xtenant', g % 2000, '0xowner',
+                       CURRENT_DATE + (g % 365), CURRENT_DATE + (g % 365) + 3, 2, 0.3, 0.05,
+                       CASE WHEN g % 100 = 0 THEN 'PENDING_PAYMENT'
+                            WHEN g % 4 = 0 THEN 'CANCELLED'
+                            WHEN g % 4 = 1 THEN 'COMPLETED'
+                            WHEN g % 4 = 2 THEN 'CONFIRMED'
+                            ELSE 'ACTIVE' END,
+                       md5(g::text), now() - (g % 10000) * INTERVAL '1 minute'
+                FROM generate_series(1, 200000) AS g
+                """);
+        jdbcTemplate.execute("ANALYZE bookings");
+    }
+
+    @Test
+    void conflictCheckUsesThePropertyStatusDatesIndex() {
+        assertIndexUsed("SELECT * FROM bookings WHERE property_id = 42 AND status IN ('CONFIRMED', 'ACTIVE') "
+                + "AND check_in <= CURRENT_DATE + 40 AND check_out >= CURRENT_DATE + 35",
+                "idx_bookings_property_status_dates");
+    }
+
+    @Test
+    void tenantAndOwnerFindersUseTheirIndexes() {
+        assertIndexUsed("SELECT * FROM bookings WHERE tenant_id = 1234", "idx_bookings_tenant_id");
+        assertIndexUsed("SELECT COUNT(*) FROM bookings WHERE owner_id = 77 AND status = 'CONFIRMED'",
+                "idx_bookings_owner_id_status");
+    }
+
+    @Test
+    void expiredPendingScanUsesTheStatusCreatedAtIndex() {
+        assertIndexUsed("SELECT * FROM bookings WHERE status = 'PENDING_PAYMENT' "
+                + "AND created_at < now() - INTERVAL '15 minutes'", "idx_bookings_status_created_at");
+    }
+
+    @Test
+    void lockTokenLookupUsesTheLockTokenIndex() {
+        assertIndexUsed("SELECT * FROM bookings WHERE lock_token = md5('4242')", "idx_bookings_lock_token");
+    }
+
+    private void assertIndexUsed(String query, String indexName) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + query, String.class);
+        assertThat(plan).as("plan of %s", query).contains("\"Index Name\": \"" + indexName + "\"");
+    }
+}
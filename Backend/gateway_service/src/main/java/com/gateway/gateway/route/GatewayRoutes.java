@@ -94,7 +94,7 @@ public class GatewayRoutes {
                         .uri(propertyServiceUri)
                 )
                 .route("property_search_public", r -> r
-                        .path("/api/properties/search", "/api/properties/search/**")
+                        .path("/api/properties/search", "/api/properties/search/**", "/api/properties/suggest")
                         .and()
                         .method("GET")
                         .uri(propertyServiceUri)
@@ -0,0 +1,12 @@
+-- Schéma de l'arbre d'origine, tel que ddl-auto le créait. Une base existante est reprise
+-- en version 1 (baseline-version) : ce script ne s'exécute que sur une base vide, les
+-- changements ultérieurs passent par des migrations incrémentales (V2+).
+
+CREATE TABLE notifications (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id    BIGINT,
+    message    VARCHAR(255),
+    type       VARCHAR(255),
+    is_read    BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6)
+);
@@ -0,0 +1,4 @@
+-- NotificationRepository.findByUserIdOrderByCreatedAtDesc / findByUserIdAndIsReadFalseOrderByCreatedAtDesc :
+-- filtre et tri servis par l'index, sans tri en mémoire
+CREATE INDEX IF NOT EXISTS idx_notifications_user_id_is_read_created_at
+    ON notifications (user_id, is_read, created_at);
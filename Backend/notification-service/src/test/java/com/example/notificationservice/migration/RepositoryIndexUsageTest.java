@@ -0,0 +1,54 @@
+package com.example.notificationservice.migration;
+
+import com.example.notificationservice.TestcontainersConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Les finders de NotificationRepository passent par l'index de V2 sur un volume réaliste :
+ * les données générées et le plan (EXPLAIN FORMAT JSON) sont annulés en fin de test.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Transactional
+class RepositoryIndexUsageTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 300k notifications pour 10k utilisateurs, un tiers non lues
+    @BeforeEach
+    void seedNotifications() {
+        jdbcTemplate.execute("""
+                INSERT INTO notifications (user_id, message, type, is_read, created_at)
+                SELECT g % 10000, 'Notification ' || g, 'PAYMENT_SUCCESS', g % 3 <> 0,
+                       now() - g * INTERVAL '1 second'
+                FROM generate_series(1, 300000) AS g
+                """);
+        jdbcTemplate.execute("ANALYZE notifications");
+    }
+
+    @Test
+    void unreadNotificationsUseTheUserReadCreatedAtIndex() {
+        assertIndexUsed("SELECT * FROM notifications WHERE user_id = 42 AND is_read = false ORDER BY created_at DESC",
+                "idx_notifications_user_id_is_read_created_at");
+    }
+
+    @Test
+    void allNotificationsOfAUserUseTheSameIndex() {
+        assertIndexUsed("SELECT * FROM notifications WHERE user_id = 42 ORDER BY created_at DESC",
+                "idx_notifications_user_id_is_read_created_at");
+    }
+
+    private void assertIndexUsed(String query, String indexName) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + query, String.class);
+        assertThat(plan).as("plan of %s", query).contains("\"Index Name\": \"" + indexName + "\"");
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.context.annotation.Configuration;
 public class RabbitConfig {
 
     public static final String BOOKING_EXCHANGE = "booking.exchange";
+    public static final String AVAILABILITY_CHANGED = "AVAILABILITY_CHANGED";
 
     @Bean
     public TopicExchange bookingExchange() {
@@ -37,17 +37,39 @@ public class AdminPropertyController {
             @RequestHeader(value = "X-Auth-Roles", defaultValue = "") String roles,
             @RequestParam(required = false) ListingStatus status,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count) {
 
         if (!roles.contains("ROLE_ADMIN")) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied: Admin role required");
         }
 
+        if (cursor != null) {
+            Sort keysetSort = Sort.by("createdAt").descending().and(Sort.by("id").descending());
+            return ResponseEntity.ok(adminPropertyService.scrollAllProperties(status, keysetSort, cursor, size));
+        }
+
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        if (!count) {
+            return ResponseEntity.ok(adminPropertyService.getAllPropertiesSlice(status, pageable));
+        }
         Page<PropertyResponse> response = adminPropertyService.getAllProperties(status, pageable);
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/search-index/rebuild")
+    public ResponseEntity<?> rebuildSearchIndex(
+            @RequestHeader(value = "X-Auth-Roles", defaultValue = "") String roles) {
+
+        if (!roles.contains("ROLE_ADMIN")) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied: Admin role required");
+        }
+
+        int indexed = adminPropertyService.rebuildSearchIndex();
+        return ResponseEntity.ok(java.util.Map.of("indexedProperties", indexed));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteProperty(
             @RequestHeader(value = "X-Auth-Roles", defaultValue = "") String roles,
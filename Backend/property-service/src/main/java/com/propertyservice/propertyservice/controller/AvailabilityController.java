@@ -1,8 +1,12 @@
 package com.propertyservice.propertyservice.controller;
 
+import com.propertyservice.propertyservice.dto.BatchAvailabilityRequest;
+import com.propertyservice.propertyservice.dto.BatchAvailabilityResponse;
 import com.propertyservice.propertyservice.dto.BlockDatesRequest;
+import com.propertyservice.propertyservice.dto.CalendarMonthResponse;
 import com.propertyservice.propertyservice.dto.PriceCalculationResult;
 import com.propertyservice.propertyservice.service.AvailabilityService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -12,19 +16,35 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 @RestController
-@RequestMapping({"/api/properties/{propertyId}/availability", "/internal/properties/{propertyId}/availability"})
+@RequestMapping({"/api/properties", "/internal/properties"})
 @RequiredArgsConstructor
 public class AvailabilityController {
 
     private final AvailabilityService availabilityService;
 
-    @GetMapping("/check")
+    /**
+     * Endpoint appelé par Booking-Service et le front (inter-service call)
+     * Vérifie plusieurs propriétés / périodes en un seul appel, résultats dans l'ordre de la requête
+     */
+    @PostMapping("/availability/batch-check")
+    public ResponseEntity<BatchAvailabilityResponse> checkAvailabilityBatch(
+            @Valid @RequestBody BatchAvailabilityRequest request) {
+
+        List<Boolean> available = availabilityService.checkAvailabilityBatch(request.getChecks());
+        return ResponseEntity.ok(BatchAvailabilityResponse.builder()
+                .available(available)
+                .availableCount((int) available.stream().filter(Boolean::booleanValue).count())
+                .build());
+    }
+
+    @GetMapping("/{propertyId}/availability/check")
     public ResponseEntity<Boolean> checkAvailability(
             @PathVariable Long propertyId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -34,7 +54,7 @@ public class AvailabilityController {
         return ResponseEntity.ok(isAvailable);
     }
 
-    @GetMapping("/unavailable-dates")
+    @GetMapping("/{propertyId}/availability/unavailable-dates")
     public ResponseEntity<List<LocalDate>> getUnavailableDates(
             @PathVariable Long propertyId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
@@ -47,7 +67,19 @@ public class AvailabilityController {
         return ResponseEntity.ok(dates);
     }
 
-    @PostMapping("/block")
+    @GetMapping("/{propertyId}/availability/calendar")
+    public ResponseEntity<List<CalendarMonthResponse>> getCalendar(
+            @PathVariable Long propertyId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(defaultValue = "6") int months) {
+
+        if (from == null) from = YearMonth.now();
+        months = Math.max(1, Math.min(months, 24)); // Au plus deux ans
+
+        return ResponseEntity.ok(availabilityService.getCalendarMonths(propertyId, from, months));
+    }
+
+    @PostMapping("/{propertyId}/availability/block")
     public ResponseEntity<String> blockDates(
             @RequestHeader("X-Auth-User-Id") Long userId,
             @PathVariable Long propertyId,
@@ -57,7 +89,7 @@ public class AvailabilityController {
         return ResponseEntity.ok("Dates blocked successfully");
     }
 
-    @PostMapping("/unblock")
+    @PostMapping("/{propertyId}/availability/unblock")
     public ResponseEntity<String> unblockDates(
             @RequestHeader("X-Auth-User-Id") Long userId,
             @PathVariable Long propertyId,
@@ -67,7 +99,7 @@ public class AvailabilityController {
         return ResponseEntity.ok("Dates unblocked successfully");
     }
 
-    @PostMapping("/lock")
+    @PostMapping("/{propertyId}/availability/lock")
     public ResponseEntity<?> lockDatesForReservation(
             @RequestHeader("X-Auth-User-Id") Long userId,
             @PathVariable Long propertyId,
@@ -95,7 +127,7 @@ public class AvailabilityController {
         }
     }
 
-    @PostMapping("/confirm/{lockToken}")
+    @PostMapping("/{propertyId}/availability/confirm/{lockToken}")
     public ResponseEntity<?> confirmReservation(
             @PathVariable Long propertyId,
             @PathVariable String lockToken) {
@@ -110,7 +142,7 @@ public class AvailabilityController {
         }
     }
 
-    @PostMapping("/release/{lockToken}")
+    @PostMapping("/{propertyId}/availability/release/{lockToken}")
     public ResponseEntity<?> releaseDates(
             @PathVariable Long propertyId,
             @PathVariable String lockToken) {
@@ -125,7 +157,7 @@ public class AvailabilityController {
         }
     }
 
-    @GetMapping("/price")
+    @GetMapping("/{propertyId}/availability/price")
     public ResponseEntity<?> calculatePrice(
             @PathVariable Long propertyId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -155,7 +187,7 @@ public class AvailabilityController {
         }
     }
 
-    @GetMapping("/price-check")
+    @GetMapping("/{propertyId}/availability/price-check")
     public ResponseEntity<?> calculatePriceWithAvailability(
             @PathVariable Long propertyId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -186,7 +218,7 @@ public class AvailabilityController {
      * @param lockToken Token de verrouillage utilisé pour la transaction
      * @param blockchainTxHash Hash de la transaction Ethereum
      */
-    @PostMapping("/block-confirmed")
+    @PostMapping("/{propertyId}/availability/block-confirmed")
     public ResponseEntity<?> blockDatesForConfirmedBooking(
             @PathVariable Long propertyId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
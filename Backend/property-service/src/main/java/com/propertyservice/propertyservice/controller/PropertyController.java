@@ -2,10 +2,15 @@ package com.propertyservice.propertyservice.controller;
 
 import com.propertyservice.propertyservice.dto.CreatePropertyRequest;
 import com.propertyservice.propertyservice.dto.PropertyResponse;
+import com.propertyservice.propertyservice.dto.ScrollCursor;
+import com.propertyservice.propertyservice.dto.SearchFacetsResponse;
 import com.propertyservice.propertyservice.dto.SearchRequest;
 import com.propertyservice.propertyservice.dto.SearchResponse;
+import com.propertyservice.propertyservice.dto.SuggestionResponse;
 import com.propertyservice.propertyservice.service.PropertyService;
+import com.propertyservice.propertyservice.service.SearchFacetService;
 import com.propertyservice.propertyservice.service.SearchService;
+import com.propertyservice.propertyservice.service.SuggestionIndex;
 import com.propertyservice.propertyservice.service.AIService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -34,6 +39,8 @@ public class PropertyController {
 
     private final PropertyService propertyService;
     private final SearchService searchService;
+    private final SearchFacetService searchFacetService;
+    private final SuggestionIndex suggestionIndex;
     private final AIService aiService;
     private final com.propertyservice.propertyservice.service.FileStorageService fileStorageService;
 
@@ -82,12 +89,26 @@ public class PropertyController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * cursor présent (vide pour la première page) : parcours keyset, réponse ScrollResponse.
+     * count=false : Slice sans COUNT(*). Sinon Page classique.
+     */
     @GetMapping
-    public ResponseEntity<Page<PropertyResponse>> getAvailableProperties(
+    public ResponseEntity<?> getAvailableProperties(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count) {
+
+        if (cursor != null) {
+            return ResponseEntity.ok(propertyService.scrollAvailableProperties(
+                    Sort.by(Sort.Direction.DESC, "id"), cursor, size));
+        }
 
         Pageable pageable = PageRequest.of(page, size);
+        if (!count) {
+            return ResponseEntity.ok(propertyService.getAvailablePropertiesSlice(pageable));
+        }
         Page<PropertyResponse> response = propertyService.getAvailableProperties(pageable);
         return ResponseEntity.ok(response);
     }
@@ -112,12 +133,14 @@ public class PropertyController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<SearchResponse> searchProperties(
+    public ResponseEntity<?> searchProperties(
             @ModelAttribute @Valid SearchRequest request,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sort,
-            @RequestParam(defaultValue = "desc") String direction) {
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count) {
 
         // SIMPLIFIER : Ne pas utiliser request.getSortBy() pour l'instant
         Sort.Direction sortDirection = direction.equalsIgnoreCase("asc")
@@ -130,12 +153,38 @@ public class PropertyController {
         }
 
         Sort sortObj = Sort.by(sortDirection, sortField);
+
+        // Défilement infini : keyset sur (clé de tri, id), curseur opaque
+        if (cursor != null) {
+            if (!ScrollCursor.supports(sortField)) {
+                return ResponseEntity.badRequest().body("Cursor pagination does not support sort: " + sort);
+            }
+            Sort keysetSort = "id".equals(sortField) ? sortObj : sortObj.and(Sort.by(sortDirection, "id"));
+            return ResponseEntity.ok(searchService.scrollProperties(request, keysetSort, cursor, size));
+        }
+
         Pageable pageable = PageRequest.of(page, size, sortObj);
+        if (!count) {
+            return ResponseEntity.ok(searchService.searchPropertiesSlice(request, pageable));
+        }
 
         SearchResponse response = searchService.searchProperties(request, pageable);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/search/facets")
+    public ResponseEntity<SearchFacetsResponse> getSearchFacets(@ModelAttribute @Valid SearchRequest request) {
+        return ResponseEntity.ok(searchFacetService.getFacets(request));
+    }
+
+    // Autocomplétion de la barre de recherche : servie par le trie en mémoire, sans requête SQL
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestionIndex.suggest(q, limit));
+    }
+
     @GetMapping("/search/text")
     public ResponseEntity<?> searchByText(
             @RequestParam String q,
@@ -146,11 +195,9 @@ public class PropertyController {
             return ResponseEntity.badRequest().body("Query parameter 'q' is required");
         }
 
+        // Tri par pertinence : pas de Sort sur le Pageable
         Pageable pageable = PageRequest.of(page, size);
-        var results = searchService.searchProperties(
-                SearchRequest.builder().location(q).build(), // Simplifié
-                pageable
-        );
+        var results = searchService.searchByText(q, pageable);
 
         return ResponseEntity.ok(results);
     }
@@ -0,0 +1,20 @@
+package com.propertyservice.propertyservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityChangedEvent {
+    private Long propertyId;
+    private LocalDate startDate; // inclus
+    private LocalDate endDate;   // inclus
+    private String status;
+    private Long version;        // par propriété, dans l'ordre des commits : à comparer nuit par nuit
+}
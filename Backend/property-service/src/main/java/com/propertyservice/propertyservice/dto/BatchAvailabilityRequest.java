@@ -0,0 +1,34 @@
+package com.propertyservice.propertyservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class BatchAvailabilityRequest {
+
+    @Valid
+    @NotEmpty(message = "At least one check is required")
+    @Size(max = 200, message = "A batch cannot exceed 200 checks")
+    private List<Check> checks;
+
+    @Data
+    public static class Check {
+        @NotNull(message = "Property id is required")
+        private Long propertyId;
+
+        @NotNull(message = "Start date is required")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        private LocalDate startDate;
+
+        @NotNull(message = "End date is required")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        private LocalDate endDate;
+    }
+}
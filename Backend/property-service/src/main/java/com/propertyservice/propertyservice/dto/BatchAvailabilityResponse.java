@@ -0,0 +1,14 @@
+package com.propertyservice.propertyservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BatchAvailabilityResponse {
+    // Même ordre que les checks de la requête
+    private List<Boolean> available;
+    private int availableCount;
+}
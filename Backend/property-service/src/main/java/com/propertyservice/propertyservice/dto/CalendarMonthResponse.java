@@ -0,0 +1,20 @@
+package com.propertyservice.propertyservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@Builder
+public class CalendarMonthResponse {
+    // Mois au format yyyy-MM
+    private String month;
+
+    // Bit (jour - 1) à 1 si la nuit est LOCKED ou BOOKED
+    private int unavailableMask;
+
+    // Multiplicateurs de prix différents de 1, par jour du mois
+    private Map<Integer, BigDecimal> priceMultipliers;
+}
@@ -0,0 +1,87 @@
+package com.propertyservice.propertyservice.dto;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Curseur opaque d'un parcours keyset : valeurs de la dernière ligne servie pour chaque clé
+ * de tri (dont id, qui rend l'ordre total), encodées en base64 URL.
+ */
+public final class ScrollCursor {
+
+    private ScrollCursor() {
+    }
+
+    // Clés de tri acceptées par les parcours par curseur : colonnes NOT NULL uniquement, une valeur
+    // nulle ne pouvant être ni encodée ni comparée par la requête keyset
+    public static boolean supports(String property) {
+        return switch (property) {
+            case "id", "createdAt", "pricePerNight" -> true;
+            default -> false;
+        };
+    }
+
+    public static String encode(ScrollPosition position, Sort sort) {
+        Map<String, Object> keys = ((KeysetScrollPosition) position).getKeys();
+        List<String> parts = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Object value = keys.get(order.getProperty());
+            if (value == null) {
+                throw new IllegalStateException("Null cursor key: " + order.getProperty());
+            }
+            parts.add(order.getProperty() + "=" + URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join("&", parts).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return la position de départ si le curseur est vide, sinon la position qui suit la ligne encodée
+     * @throws IllegalArgumentException si le curseur est illisible ou a été émis pour un autre tri
+     */
+    public static ScrollPosition decode(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            for (String part : decoded.split("&")) {
+                int separator = part.indexOf('=');
+                String property = part.substring(0, separator);
+                String value = URLDecoder.decode(part.substring(separator + 1), StandardCharsets.UTF_8);
+                keys.put(property, parse(property, value));
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        for (Sort.Order order : sort) {
+            if (!keys.containsKey(order.getProperty())) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Object parse(String property, String value) {
+        return switch (property) {
+            case "id" -> Long.valueOf(value);
+            case "createdAt" -> LocalDateTime.parse(value);
+            case "pricePerNight" -> new BigDecimal(value);
+            default -> throw new IllegalArgumentException("Unsupported cursor key: " + property);
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.propertyservice.propertyservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+
+/**
+ * Page d'un parcours par curseur (keyset) : pas de COUNT(*), coût constant quelle que soit la profondeur.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScrollResponse<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // à renvoyer tel quel pour obtenir la page suivante, null en fin de parcours
+
+    public static <T> ScrollResponse<T> of(List<T> content, Window<?> window, Sort sort) {
+        boolean hasNext = window.hasNext() && !window.isEmpty();
+        return ScrollResponse.<T>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? ScrollCursor.encode(window.positionAt(window.size() - 1), sort) : null)
+                .build();
+    }
+}
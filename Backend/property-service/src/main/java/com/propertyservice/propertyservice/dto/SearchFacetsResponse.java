@@ -0,0 +1,32 @@
+package com.propertyservice.propertyservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetsResponse {
+    private long totalProperties;
+    private Map<String, Long> propertyTypes;
+    private List<PriceBucket> priceHistogram;
+    private Map<Integer, Long> bedrooms;
+    private Map<String, Long> amenities;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBucket {
+        private BigDecimal minPrice; // inclus
+        private BigDecimal maxPrice; // exclu
+        private long count;
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 
 @Builder
 @Data
@@ -42,10 +43,69 @@ public class SearchRequest {
     // ✅ Options
     private Boolean instantBookable;
 
+    // 🗺️ Recherche géographique : rayon autour d'un point (sort=distance pour trier par éloignement)
+    private Double latitude;
+    private Double longitude;
+    private Double radiusKm;
+
+    // 🗺️ ... ou rectangle visible de la carte (coins sud-ouest et nord-est)
+    private Double swLat;
+    private Double swLng;
+    private Double neLat;
+    private Double neLng;
+
     // 📋 Pagination (déjà géré par Spring)
 
     // Méthode utilitaire
     public boolean hasDates() {
         return checkIn != null && checkOut != null;
     }
+
+    public boolean hasGeoCenter() {
+        return latitude != null && longitude != null;
+    }
+
+    public boolean hasBoundingBox() {
+        return swLat != null && swLng != null && neLat != null && neLng != null;
+    }
+
+    /**
+     * Deux filtres équivalents (casse, espaces, valeurs ignorées par buildSpecification)
+     * donnent la même clé de cache.
+     */
+    public SearchRequest normalized() {
+        String normalizedLocation = location == null || location.isBlank()
+                ? null : location.trim().toLowerCase(Locale.ROOT);
+        boolean dates = hasDates();
+
+        return SearchRequest.builder()
+                .location(normalizedLocation)
+                .checkIn(dates ? checkIn : null)
+                .checkOut(dates ? checkOut : null)
+                .guests(positive(guests))
+                .propertyType(propertyType)
+                .minPrice(positive(minPrice))
+                .maxPrice(positive(maxPrice))
+                .bedrooms(positive(bedrooms))
+                .bathrooms(positive(bathrooms))
+                .minRating(minRating != null && minRating >= 1 && minRating <= 5 ? minRating : null)
+                .instantBookable(instantBookable)
+                .latitude(latitude)
+                .longitude(longitude)
+                .radiusKm(radiusKm)
+                .swLat(swLat)
+                .swLng(swLng)
+                .neLat(neLat)
+                .neLng(neLng)
+                .build();
+    }
+
+    private static Integer positive(Integer value) {
+        return value != null && value > 0 ? value : null;
+    }
+
+    private static BigDecimal positive(BigDecimal value) {
+        // stripTrailingZeros : 100 et 100.00 donnent la même clé
+        return value != null && value.compareTo(BigDecimal.ZERO) > 0 ? value.stripTrailingZeros() : null;
+    }
 }
@@ -0,0 +1,18 @@
+package com.propertyservice.propertyservice.dto;
+
+import com.propertyservice.propertyservice.enu.SuggestionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionResponse {
+    private String text;
+    private SuggestionType type;
+    private Long propertyId; // PROPERTY uniquement
+    private long listings;   // nombre d'annonces actives (1 pour une annonce)
+}
@@ -14,6 +14,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "availability_calendar", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"property_id", "date"})
+}, indexes = {
+        @Index(name = "idx_availability_property_lock_token", columnList = "property_id, lock_token")
 })
 @Data
 @NoArgsConstructor
@@ -37,7 +39,7 @@ public class AvailabilityCalendar {
     private AvailabilityStatus status = AvailabilityStatus.AVAILABLE;
 
     @Column(name = "lock_token")
-    private String lockToken; // Token unique pour identifier ce verrou
+    private String lockToken; // Token unique pour identifier ce verrou (conservé après confirmation)
 
     @Column(name = "lock_expires_at")
     private LocalDateTime lockExpiresAt; // Date d'expiration du verrou (15 min)
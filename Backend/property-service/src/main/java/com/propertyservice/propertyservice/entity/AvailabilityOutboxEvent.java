@@ -0,0 +1,51 @@
+package com.propertyservice.propertyservice.entity;
+
+import com.propertyservice.propertyservice.enu.AvailabilityStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox transactionnelle : écrite dans la même transaction que le changement de calendrier,
+ * publiée sur RabbitMQ après commit par AvailabilityEventPublisher.
+ */
+@Entity
+@Table(name = "availability_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // Ordre d'insertion seulement : deux transactions peuvent commiter dans l'autre ordre
+
+    @Column(name = "property_id", nullable = false)
+    private Long propertyId;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AvailabilityStatus status;
+
+    @Column(nullable = false)
+    private Long version; // Par propriété, dans l'ordre des commits (availability_versions)
+
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil; // Réservé par un relais jusqu'à cette date (publication en cours)
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -4,6 +4,7 @@ import com.propertyservice.propertyservice.enu.ListingStatus;
 import com.propertyservice.propertyservice.enu.PropertyType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,7 +14,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "properties")
+@Table(name = "properties", indexes = {
+        @Index(name = "idx_properties_status_average_rating", columnList = "status, average_rating"),
+        // Parcours keyset des listes (createdAt, id)
+        @Index(name = "idx_properties_status_created_at_id", columnList = "status, created_at, id"),
+        // Pré-filtre rectangulaire des recherches géographiques
+        @Index(name = "idx_properties_latitude_longitude", columnList = "latitude, longitude")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -89,6 +96,20 @@ public class Property {
     @Builder.Default
     private List<PropertyImage> images = new ArrayList<>();
 
+    // Agrégats des reviews, tenus à jour par ReviewService (aucun AVG/COUNT à la lecture)
+    @Column(name = "rating_sum", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long ratingSum = 0L;
+
+    @Column(name = "rating_count", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer ratingCount = 0;
+
+    @Column(name = "average_rating")
+    private Double averageRating; // null tant qu'aucune review
+
     @OneToMany(mappedBy = "property", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<Review> reviews = new ArrayList<>();
@@ -98,7 +119,7 @@ public class Property {
     private List<AvailabilityCalendar> availabilityEntries = new ArrayList<>();
 
     @CreationTimestamp
-    @Column(updatable = false)
+    @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @UpdateTimestamp
@@ -1,7 +1,13 @@
 package com.propertyservice.propertyservice.enu;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum AvailabilityStatus {
     AVAILABLE,
     LOCKED,
-    BOOKED
+    BOOKED;
+
+    // Statuts qui rendent une nuit non réservable
+    public static final Set<AvailabilityStatus> UNAVAILABLE = EnumSet.of(LOCKED, BOOKED);
 }
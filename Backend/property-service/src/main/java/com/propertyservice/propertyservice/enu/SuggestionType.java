@@ -0,0 +1,7 @@
+package com.propertyservice.propertyservice.enu;
+
+public enum SuggestionType {
+    CITY,
+    COUNTRY,
+    PROPERTY
+}
@@ -0,0 +1,84 @@
+package com.propertyservice.propertyservice.repository;
+
+import com.propertyservice.propertyservice.entity.AvailabilityOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AvailabilityOutboxRepository extends JpaRepository<AvailabilityOutboxEvent, Long> {
+
+    // Même upsert que nextVersion, exécuté seulement si la CTE nights n'est pas vide
+    String VERSION_IF_ANY_NIGHT = "next_version AS (" +
+            "INSERT INTO availability_versions (property_id, version) " +
+            "SELECT :propertyId, 1 WHERE EXISTS (SELECT 1 FROM nights) " +
+            "ON CONFLICT (property_id) DO UPDATE SET version = availability_versions.version + 1 " +
+            "RETURNING version) ";
+
+    // Version suivante d'une propriété : la ligne du compteur reste verrouillée jusqu'au commit,
+    // une transaction concurrente sur la même propriété obtient donc la suivante après ce commit
+    @Query(value = "INSERT INTO availability_versions (property_id, version) VALUES (:propertyId, 1) " +
+            "ON CONFLICT (property_id) DO UPDATE SET version = availability_versions.version + 1 " +
+            "RETURNING version",
+            nativeQuery = true)
+    Long nextVersion(@Param("propertyId") Long propertyId);
+
+    // Un événement par suite de nuits consécutives (gaps and islands), pour les nuits d'un verrou
+    // encore dans l'un des statuts de départ. À appeler AVANT la transition.
+    // La version n'est prise (et sa ligne verrouillée) que si au moins une nuit correspond :
+    // une requête rejouée ne consomme pas de version et ne bloque pas les autres écrivains.
+    @Modifying
+    @Query(value = "WITH nights AS (" +
+            "SELECT date, date - CAST(ROW_NUMBER() OVER (ORDER BY date) AS int) AS run " +
+            "FROM availability_calendar WHERE property_id = :propertyId AND lock_token = :lockToken " +
+            "AND status IN (:fromStatuses)), " +
+            VERSION_IF_ANY_NIGHT +
+            "INSERT INTO availability_outbox (property_id, start_date, end_date, status, version, created_at) " +
+            "SELECT :propertyId, MIN(n.date), MAX(n.date), :newStatus, v.version, now() " +
+            "FROM nights n CROSS JOIN next_version v GROUP BY n.run, v.version",
+            nativeQuery = true)
+    int recordLockTokenChange(@Param("propertyId") Long propertyId,
+                              @Param("lockToken") String lockToken,
+                              @Param("fromStatuses") Collection<String> fromStatuses,
+                              @Param("newStatus") String newStatus);
+
+    // Même principe pour une liste de dates explicite (déblocage propriétaire)
+    @Modifying
+    @Query(value = "WITH nights AS (" +
+            "SELECT date, date - CAST(ROW_NUMBER() OVER (ORDER BY date) AS int) AS run " +
+            "FROM availability_calendar WHERE property_id = :propertyId AND date IN (:dates) " +
+            "AND status IN (:fromStatuses)), " +
+            VERSION_IF_ANY_NIGHT +
+            "INSERT INTO availability_outbox (property_id, start_date, end_date, status, version, created_at) " +
+            "SELECT :propertyId, MIN(n.date), MAX(n.date), :newStatus, v.version, now() " +
+            "FROM nights n CROSS JOIN next_version v GROUP BY n.run, v.version",
+            nativeQuery = true)
+    int recordDatesChange(@Param("propertyId") Long propertyId,
+                          @Param("dates") Collection<LocalDate> dates,
+                          @Param("fromStatuses") Collection<String> fromStatuses,
+                          @Param("newStatus") String newStatus);
+
+    // Réserve un lot d'événements à publier pour leaseMs (horloge de la base, commune aux réplicas) ;
+    // SKIP LOCKED pour que deux réplicas ne réservent pas le même lot. À commiter avant la publication.
+    @Transactional
+    @Query(value = "UPDATE availability_outbox SET claimed_until = now() + :leaseMs * INTERVAL '1 millisecond' " +
+            "WHERE id IN (SELECT id FROM availability_outbox " +
+            "WHERE claimed_until IS NULL OR claimed_until < now() " +
+            "ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *",
+            nativeQuery = true)
+    List<AvailabilityOutboxEvent> claimPendingBatch(@Param("batchSize") int batchSize, @Param("leaseMs") long leaseMs);
+
+    // Rend immédiatement publiables les événements non confirmés
+    @Transactional
+    @Modifying
+    @Query("UPDATE AvailabilityOutboxEvent e SET e.claimedUntil = NULL WHERE e.id IN :ids")
+    int releaseClaims(@Param("ids") Collection<Long> ids);
+}
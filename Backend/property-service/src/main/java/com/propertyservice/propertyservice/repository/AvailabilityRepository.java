@@ -7,9 +7,12 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +23,10 @@ public interface AvailabilityRepository extends JpaRepository<AvailabilityCalend
 
     Optional<AvailabilityCalendar> findByPropertyIdAndDate(Long propertyId, LocalDate date);
 
+    // Une seule requête pour toute la période (au lieu d'une par nuit)
+    boolean existsByPropertyIdAndDateBetweenAndStatusIn(
+            Long propertyId, LocalDate startDate, LocalDate endDate, Collection<AvailabilityStatus> statuses);
+
     @Query("SELECT a FROM AvailabilityCalendar a WHERE " +
             "a.property.id = :propertyId AND " +
             "a.date BETWEEN :startDate AND :endDate AND " +
@@ -30,17 +37,152 @@ public interface AvailabilityRepository extends JpaRepository<AvailabilityCalend
             @Param("endDate") LocalDate endDate,
             @Param("status") AvailabilityStatus status);
 
-    // 1. Trouver tous les verrous avec un token donné
-    List<AvailabilityCalendar> findByLockToken(String lockToken);
-
     // 2. Trouver les verrous d'une propriété spécifique avec un token
     List<AvailabilityCalendar> findByPropertyIdAndLockToken(Long propertyId, String lockToken);
 
-    // 3. Trouver les verrous expirés (pour nettoyage automatique)
-    List<AvailabilityCalendar> findByLockExpiresAtBefore(LocalDateTime expiryTime);
+    // Transitions en une instruction, rejouables sans effet (messages RabbitMQ relivrés, retries)
+    // Le lockToken est conservé sur les nuits BOOKED : une confirmation rejouée les retrouve
+    @Modifying
+    @Query("UPDATE AvailabilityCalendar a SET a.status = 'BOOKED', a.lockExpiresAt = NULL WHERE " +
+            "a.property.id = :propertyId AND a.lockToken = :lockToken AND a.status IN ('LOCKED', 'BOOKED')")
+    int confirmLock(@Param("propertyId") Long propertyId, @Param("lockToken") String lockToken);
+
+    @Modifying
+    @Query("UPDATE AvailabilityCalendar a SET a.status = 'BOOKED', a.lockExpiresAt = NULL WHERE " +
+            "a.property.id = :propertyId AND a.lockToken = :lockToken AND " +
+            "(a.status = 'BOOKED' OR (a.status = 'LOCKED' AND a.lockExpiresAt >= :now))")
+    int confirmUnexpiredLock(@Param("propertyId") Long propertyId,
+                             @Param("lockToken") String lockToken,
+                             @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE AvailabilityCalendar a SET a.status = 'AVAILABLE', a.lockToken = NULL, " +
+            "a.lockExpiresAt = NULL, a.tenantId = NULL WHERE " +
+            "a.property.id = :propertyId AND a.lockToken = :lockToken AND a.status = 'LOCKED'")
+    int releaseLock(@Param("propertyId") Long propertyId, @Param("lockToken") String lockToken);
+
+    boolean existsByPropertyIdAndLockToken(Long propertyId, String lockToken);
+
+    // Écritures groupées : une seule instruction pour tout un séjour
+    // Ne prend que les nuits absentes ou AVAILABLE : le nombre de lignes écrites doit égaler le nombre de nuits
+    @Modifying
+    @Query(value = "INSERT INTO availability_calendar " +
+            "(property_id, date, status, lock_token, lock_expires_at, tenant_id, price_multiplier) " +
+            "SELECT :propertyId, CAST(d AS date), 'LOCKED', :lockToken, :expiresAt, :tenantId, 1.00 " +
+            "FROM generate_series(CAST(:startDate AS date), CAST(:endDate AS date), INTERVAL '1 day') AS d " +
+            "ON CONFLICT (property_id, date) DO UPDATE SET " +
+            "status = 'LOCKED', lock_token = EXCLUDED.lock_token, " +
+            "lock_expires_at = EXCLUDED.lock_expires_at, tenant_id = EXCLUDED.tenant_id " +
+            "WHERE availability_calendar.status = 'AVAILABLE'",
+            nativeQuery = true)
+    int upsertLockedRange(@Param("propertyId") Long propertyId,
+                          @Param("startDate") LocalDate startDate,
+                          @Param("endDate") LocalDate endDate,
+                          @Param("lockToken") String lockToken,
+                          @Param("expiresAt") LocalDateTime expiresAt,
+                          @Param("tenantId") Long tenantId);
+
+    // Un blocage propriétaire efface le verrou éventuel : son expiration ne doit pas rendre la nuit disponible
+    @Modifying
+    @Query(value = "INSERT INTO availability_calendar (property_id, date, status, price_multiplier) " +
+            "SELECT :propertyId, d, 'BOOKED', 1.00 FROM unnest(ARRAY[:dates]) AS d " +
+            "ON CONFLICT (property_id, date) DO UPDATE SET status = 'BOOKED', " +
+            "lock_token = NULL, lock_expires_at = NULL, tenant_id = NULL",
+            nativeQuery = true)
+    int upsertBookedDates(@Param("propertyId") Long propertyId, @Param("dates") Collection<LocalDate> dates);
+
+    @Modifying
+    @Query("UPDATE AvailabilityCalendar a SET a.status = 'AVAILABLE', a.lockToken = NULL WHERE " +
+            "a.property.id = :propertyId AND a.date IN :dates AND a.status = 'BOOKED'")
+    int unblockBookedDates(@Param("propertyId") Long propertyId, @Param("dates") Collection<LocalDate> dates);
+
+    // Projection (propertyId, date) des nuits indisponibles, pour l'index en mémoire
+    @Query("SELECT a.property.id, a.date FROM AvailabilityCalendar a WHERE " +
+            "a.date BETWEEN :startDate AND :endDate AND a.status IN :statuses")
+    List<Object[]> findUnavailableNights(@Param("startDate") LocalDate startDate,
+                                         @Param("endDate") LocalDate endDate,
+                                         @Param("statuses") Collection<AvailabilityStatus> statuses);
+
+    @Query("SELECT a.date FROM AvailabilityCalendar a WHERE a.property.id = :propertyId AND " +
+            "a.date BETWEEN :startDate AND :endDate AND a.status IN :statuses")
+    List<LocalDate> findUnavailableNightsForProperty(@Param("propertyId") Long propertyId,
+                                                     @Param("startDate") LocalDate startDate,
+                                                     @Param("endDate") LocalDate endDate,
+                                                     @Param("statuses") Collection<AvailabilityStatus> statuses);
+
+    // Projection (date, statut, multiplicateur) des nuits non standard, sans hydrater d'entité
+    @Query("SELECT a.date, a.status, a.priceMultiplier FROM AvailabilityCalendar a WHERE " +
+            "a.property.id = :propertyId AND a.date BETWEEN :startDate AND :endDate AND " +
+            "(a.status IN :statuses OR a.priceMultiplier <> 1)")
+    List<Object[]> findCalendarNights(@Param("propertyId") Long propertyId,
+                                      @Param("startDate") LocalDate startDate,
+                                      @Param("endDate") LocalDate endDate,
+                                      @Param("statuses") Collection<AvailabilityStatus> statuses);
+
+    // Multiplicateurs de prix différents de 1 sur un séjour (moteur de prix)
+    @Query("SELECT a.priceMultiplier FROM AvailabilityCalendar a WHERE a.property.id = :propertyId AND " +
+            "a.date BETWEEN :startDate AND :endDate AND a.priceMultiplier <> 1")
+    List<BigDecimal> findSpecialPriceMultipliers(@Param("propertyId") Long propertyId,
+                                                 @Param("startDate") LocalDate startDate,
+                                                 @Param("endDate") LocalDate endDate);
+
+    // Vérification groupée : nuits indisponibles de plusieurs propriétés en une requête
+    @Query("SELECT a.property.id, a.date FROM AvailabilityCalendar a WHERE " +
+            "a.property.id IN :propertyIds AND a.date BETWEEN :startDate AND :endDate AND a.status IN :statuses")
+    List<Object[]> findUnavailableNightsForProperties(@Param("propertyIds") Collection<Long> propertyIds,
+                                                      @Param("startDate") LocalDate startDate,
+                                                      @Param("endDate") LocalDate endDate,
+                                                      @Param("statuses") Collection<AvailabilityStatus> statuses);
+
+    // 3b. Libération groupée des verrous expirés, par lots (SKIP LOCKED pour ne pas bloquer les réplicas voisins)
+    // Renvoie (property_id, date) des nuits libérées
+    @Transactional
+    @Query(value = "UPDATE availability_calendar SET status = 'AVAILABLE', " +
+            "lock_token = NULL, lock_expires_at = NULL, tenant_id = NULL " +
+            "WHERE id IN (SELECT id FROM availability_calendar " +
+            "WHERE status = 'LOCKED' AND lock_token IS NOT NULL AND lock_expires_at < :now " +
+            "LIMIT :batchSize FOR UPDATE SKIP LOCKED) " +
+            "RETURNING property_id, date",
+            nativeQuery = true)
+    List<Object[]> releaseExpiredLocks(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+
+    // 3c. Libération exacte d'un verrou arrivé à échéance (roue temporelle)
+    @Transactional
+    @Modifying
+    @Query("UPDATE AvailabilityCalendar a SET a.status = 'AVAILABLE', a.lockToken = NULL, " +
+            "a.lockExpiresAt = NULL, a.tenantId = NULL WHERE " +
+            "a.property.id = :propertyId AND a.lockToken = :lockToken AND a.status = 'LOCKED' " +
+            "AND a.lockExpiresAt <= :now")
+    int releaseExpiredLock(@Param("propertyId") Long propertyId,
+                           @Param("lockToken") String lockToken,
+                           @Param("now") LocalDateTime now);
+
+    // 3d. Verrous en cours (propertyId, lockToken, expiration) pour réalimenter la roue au démarrage
+    @Query("SELECT a.property.id, a.lockToken, MAX(a.lockExpiresAt) FROM AvailabilityCalendar a " +
+            "WHERE a.lockToken IS NOT NULL AND a.lockExpiresAt IS NOT NULL " +
+            "GROUP BY a.property.id, a.lockToken")
+    List<Object[]> findActiveLocks();
+
+    // 3e. Stockage creux : suppression par lots des nuits redevenues disponibles sans tarif particulier
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM availability_calendar WHERE id IN (SELECT id FROM availability_calendar " +
+            "WHERE status = 'AVAILABLE' AND lock_token IS NULL " +
+            "AND (price_multiplier IS NULL OR price_multiplier = 1) " +
+            "LIMIT :batchSize FOR UPDATE SKIP LOCKED)",
+            nativeQuery = true)
+    int deleteImplicitlyAvailableNights(@Param("batchSize") int batchSize);
 
-    // 4. Supprimer par token (optionnel)
+    // 3f. Matérialisation de l'horizon du calendrier pour un lot de propriétés
+    @Transactional
     @Modifying
-    @Query("DELETE FROM AvailabilityCalendar a WHERE a.lockToken = :lockToken")
-    void deleteByLockToken(@Param("lockToken") String lockToken);
+    @Query(value = "INSERT INTO availability_calendar (property_id, date, status, price_multiplier) " +
+            "SELECT p.id, CAST(d AS date), 'AVAILABLE', 1.00 FROM properties p " +
+            "CROSS JOIN generate_series(CAST(:startDate AS date), CAST(:endDate AS date), INTERVAL '1 day') AS d " +
+            "WHERE p.id IN (:propertyIds) " +
+            "ON CONFLICT (property_id, date) DO NOTHING",
+            nativeQuery = true)
+    int materializeNights(@Param("propertyIds") Collection<Long> propertyIds,
+                          @Param("startDate") LocalDate startDate,
+                          @Param("endDate") LocalDate endDate);
 }
@@ -0,0 +1,16 @@
+package com.propertyservice.propertyservice.repository;
+
+import com.propertyservice.propertyservice.entity.Property;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface PropertyFacetRepository {
+
+    // Un seul GROUP BY : (type, tranche de prix, chambres, nombre) pour les annonces du filtre
+    List<Object[]> countByTypePriceBucketAndBedrooms(Specification<Property> spec, BigDecimal priceBucketWidth);
+
+    // (équipement, nombre d'annonces) pour les annonces du filtre
+    List<Object[]> countByAmenity(Specification<Property> spec);
+}
@@ -0,0 +1,61 @@
+package com.propertyservice.propertyservice.repository;
+
+import com.propertyservice.propertyservice.entity.Property;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+class PropertyFacetRepositoryImpl implements PropertyFacetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Object[]> countByTypePriceBucketAndBedrooms(Specification<Property> spec, BigDecimal priceBucketWidth) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Property> root = query.from(Property.class);
+
+        // Largeur en littéral : liée en paramètre, elle donnerait deux placeholders distincts dans
+        // le SELECT et le GROUP BY, que Postgres ne reconnaît pas comme la même expression
+        Expression<BigDecimal> price = root.get("pricePerNight");
+        Expression<BigDecimal> bucket = cb.function("floor", BigDecimal.class,
+                cb.quot(price, cb.literal(priceBucketWidth)));
+
+        where(query, spec, root, cb);
+        query.multiselect(root.get("type"), bucket, root.get("bedrooms"), cb.count(root))
+                .groupBy(root.get("type"), bucket, root.get("bedrooms"));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<Object[]> countByAmenity(Specification<Property> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Property> root = query.from(Property.class);
+        Join<Property, String> amenity = root.join("amenities");
+
+        where(query, spec, root, cb);
+        query.multiselect(amenity, cb.countDistinct(root))
+                .groupBy(amenity);
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private static void where(CriteriaQuery<?> query, Specification<Property> spec, Root<Property> root, CriteriaBuilder cb) {
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
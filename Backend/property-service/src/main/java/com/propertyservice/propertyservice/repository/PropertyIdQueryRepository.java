@@ -0,0 +1,13 @@
+package com.propertyservice.propertyservice.repository;
+
+import com.propertyservice.propertyservice.entity.Property;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+public interface PropertyIdQueryRepository {
+
+    // Identifiants seuls, dans l'ordre demandé, lus au fil de l'eau (à consommer dans une transaction)
+    Stream<Long> streamIds(Specification<Property> spec, Sort sort);
+}
@@ -0,0 +1,51 @@
+package com.propertyservice.propertyservice.repository;
+
+import com.propertyservice.propertyservice.entity.Property;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+class PropertyIdQueryRepositoryImpl implements PropertyIdQueryRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Long> streamIds(Specification<Property> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Property> root = query.from(Property.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        // Ordre posé par la Specification (ex. distance), puis tri demandé,
+        // puis départage par id pour un ordre total, identique d'une page à l'autre
+        List<Order> orders = new ArrayList<>(query.getOrderList());
+        orders.addAll(QueryUtils.toOrders(sort, root, cb));
+        if (sort.getOrderFor("id") == null) {
+            orders.add(cb.desc(root.get("id")));
+        }
+        query.select(root.get("id")).orderBy(orders);
+
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .getResultStream();
+    }
+}
@@ -3,19 +3,23 @@ package com.propertyservice.propertyservice.repository;
 import com.propertyservice.propertyservice.enu.ListingStatus;
 import com.propertyservice.propertyservice.enu.PropertyType;
 import com.propertyservice.propertyservice.entity.Property;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSpecificationExecutor<Property> {
+public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSpecificationExecutor<Property>,
+        PropertyIdQueryRepository, PropertyFacetRepository {
 
     // Trouver les propriétés d'un owner
     Page<Property> findByOwnerId(Long ownerId, Pageable pageable);
@@ -26,6 +30,27 @@ public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSp
 
     long countByStatus(ListingStatus status);
 
+    @Query("SELECT p.id FROM Property p WHERE p.id IN :ids AND p.status = :status")
+    List<Long> findIdsByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") ListingStatus status);
+
+    // Parcours par identifiant croissant (traitements par lots)
+    @Query("SELECT p.id FROM Property p WHERE p.status = :status AND p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsByStatusAfter(@Param("status") ListingStatus status,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+
+    // Ajout (+1) ou retrait (-1) d'une review, en une instruction : pas de mise à jour perdue
+    // entre deux reviews concurrentes. Les deux membres lisent l'ancienne ligne.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Property p SET p.ratingSum = p.ratingSum + :ratingDelta, " +
+            "p.ratingCount = p.ratingCount + :countDelta, " +
+            "p.averageRating = CASE WHEN p.ratingCount + :countDelta = 0 THEN NULL " +
+            "ELSE (p.ratingSum + :ratingDelta) * 1.0 / (p.ratingCount + :countDelta) END " +
+            "WHERE p.id = :propertyId")
+    int applyReviewDelta(@Param("propertyId") Long propertyId,
+                         @Param("ratingDelta") long ratingDelta,
+                         @Param("countDelta") int countDelta);
+
     // Trouver les propriétés disponibles par type
     Page<Property> findByTypeAndStatus(PropertyType type, ListingStatus status, Pageable pageable);
 
@@ -50,8 +75,19 @@ public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSp
     // Compter les propriétés d'un owner
     long countByOwnerId(Long ownerId);
 
-    @Query("SELECT DISTINCT p.address.city FROM Property p WHERE p.status = 'ACTIVE' ORDER BY p.createdAt DESC")
-    List<String> findPopularCities(@Param("limit") int limit);
+    // Villes classées par nombre d'annonces actives
+    @Query("SELECT p.address.city FROM Property p WHERE p.status = 'ACTIVE' " +
+            "GROUP BY p.address.city ORDER BY COUNT(p) DESC")
+    List<String> findPopularCities(Limit limit);
+
+    // Champs de l'autocomplétion (SuggestionIndex), sans charger les entités
+    @Query("SELECT p.id, p.title, p.address.city, p.address.country FROM Property p WHERE p.status = :status")
+    List<Object[]> findSuggestionFields(@Param("status") ListingStatus status);
+
+    @Query("SELECT p.id, p.title, p.address.city, p.address.country FROM Property p " +
+            "WHERE p.id IN :ids AND p.status = :status")
+    List<Object[]> findSuggestionFieldsByIdIn(@Param("ids") Collection<Long> ids,
+                                              @Param("status") ListingStatus status);
 
     // Compter par type
     long countByTypeAndStatus(PropertyType type, ListingStatus status);
@@ -68,4 +104,17 @@ public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSp
             "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "LOWER(p.address.city) LIKE LOWER(CONCAT('%', :query, '%')))")
     Page<Property> searchByText(@Param("query") String query, Pageable pageable);
+
+    // Recherche libre classée par pertinence : sous-chaîne du titre, de la ville ou du pays (comme
+    // PropertySpecifications.inLocation, index trigrammes) ou mots entiers de search_vector (titre,
+    // ville, pays ; index GIN, cf. V6). Les correspondances par mot sortent en tête.
+    @Query(value = "SELECT p.* FROM properties p, websearch_to_tsquery('simple', :query) q " +
+            "WHERE p.status = 'ACTIVE' AND (p.search_vector @@ q OR lower(p.city) LIKE :pattern " +
+            "OR lower(p.country) LIKE :pattern OR lower(p.title) LIKE :pattern) " +
+            "ORDER BY ts_rank_cd(p.search_vector, q) DESC, p.id DESC",
+            countQuery = "SELECT COUNT(*) FROM properties p, websearch_to_tsquery('simple', :query) q " +
+                    "WHERE p.status = 'ACTIVE' AND (p.search_vector @@ q OR lower(p.city) LIKE :pattern " +
+                    "OR lower(p.country) LIKE :pattern OR lower(p.title) LIKE :pattern)",
+            nativeQuery = true)
+    Page<Property> searchRanked(@Param("query") String query, @Param("pattern") String pattern, Pageable pageable);
 }
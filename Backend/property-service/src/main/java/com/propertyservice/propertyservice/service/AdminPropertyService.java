@@ -4,15 +4,23 @@ import com.propertyservice.propertyservice.config.RabbitConfig;
 import com.propertyservice.propertyservice.dto.AdminStatsResponse;
 import com.propertyservice.propertyservice.dto.PropertyApprovalEvent;
 import com.propertyservice.propertyservice.dto.PropertyResponse;
+import com.propertyservice.propertyservice.dto.ScrollCursor;
+import com.propertyservice.propertyservice.dto.ScrollResponse;
 import com.propertyservice.propertyservice.entity.Property;
 import com.propertyservice.propertyservice.enu.ListingStatus;
 import com.propertyservice.propertyservice.enu.PropertyType;
 import com.propertyservice.propertyservice.exception.PropertyNotFoundException;
 import com.propertyservice.propertyservice.repository.PropertyRepository;
 import com.propertyservice.propertyservice.repository.ReviewRepository;
+import com.propertyservice.propertyservice.specification.PropertySpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,9 +34,11 @@ public class AdminPropertyService {
 
     private final PropertyRepository propertyRepository;
     private final PropertyService propertyService;
-    private final AvailabilityService availabilityService;
     private final ReviewRepository reviewRepository;
     private final RabbitTemplate rabbitTemplate;
+    private final PropertySearchIndex propertySearchIndex;
+    private final SearchResultCache searchResultCache;
+    private final SuggestionIndex suggestionIndex;
 
     @Transactional(readOnly = true)
     public AdminStatsResponse getStats() {
@@ -48,8 +58,8 @@ public class AdminPropertyService {
     }
 
     @Transactional(readOnly = true)
-    public org.springframework.data.domain.Page<PropertyResponse> getAllProperties(ListingStatus status, org.springframework.data.domain.Pageable pageable) {
-        org.springframework.data.domain.Page<Property> properties;
+    public Page<PropertyResponse> getAllProperties(ListingStatus status, Pageable pageable) {
+        Page<Property> properties;
         if (status != null) {
             properties = propertyRepository.findByStatus(status, pageable);
         } else {
@@ -58,12 +68,34 @@ public class AdminPropertyService {
         return properties.map(propertyService::mapToPropertyResponse);
     }
 
+    @Transactional(readOnly = true)
+    public Slice<PropertyResponse> getAllPropertiesSlice(ListingStatus status, Pageable pageable) {
+        return propertyRepository.findBy(PropertySpecifications.hasStatus(status), query -> query.slice(pageable))
+                .map(propertyService::mapToPropertyResponse);
+    }
+
+    @Transactional(readOnly = true)
+    public ScrollResponse<PropertyResponse> scrollAllProperties(ListingStatus status, Sort sort, String cursor, int size) {
+        Window<Property> window = propertyRepository.findBy(PropertySpecifications.hasStatus(status),
+                query -> query.sortBy(sort).limit(size).scroll(ScrollCursor.decode(cursor, sort)));
+        return ScrollResponse.of(window.getContent().stream().map(propertyService::mapToPropertyResponse).toList(), window, sort);
+    }
+
+    public int rebuildSearchIndex() {
+        if (!propertySearchIndex.isEnabled()) {
+            throw new IllegalStateException("Search index is disabled (app.search.lucene.enabled=false)");
+        }
+        return propertySearchIndex.rebuild();
+    }
+
     @Transactional
     public void deleteProperty(Long id) {
-        if (!propertyRepository.existsById(id)) {
-            throw new PropertyNotFoundException("Property not found");
-        }
-        propertyRepository.deleteById(id);
+        Property property = propertyRepository.findById(id)
+                .orElseThrow(() -> new PropertyNotFoundException("Property not found"));
+        propertyRepository.delete(property);
+        propertySearchIndex.remove(id);
+        suggestionIndex.remove(id);
+        searchResultCache.evictListing(property);
         log.info("Admin deleted property {}", id);
     }
 
@@ -79,11 +111,12 @@ public class AdminPropertyService {
 
         property.setStatus(ListingStatus.ACTIVE);
         Property savedProperty = propertyRepository.save(property);
-        
-        // Trigger availability generation
-        availabilityService.generateAvailabilityForYear(id);
-        
-        log.info("Property {} approved and availability generated.", id);
+        propertySearchIndex.index(savedProperty);
+        suggestionIndex.index(savedProperty);
+        searchResultCache.evictListing(savedProperty);
+
+        // Le calendrier est matérialisé à la demande (verrous, blocages) et par le job nocturne
+        log.info("Property {} approved.", id);
 
         // Notify via RabbitMQ (Safe)
         try {
@@ -107,6 +140,9 @@ public class AdminPropertyService {
         log.info("Property {} rejected. Reason: {}", id, reason);
         
         Property savedProperty = propertyRepository.save(property);
+        propertySearchIndex.index(savedProperty);
+        suggestionIndex.index(savedProperty);
+        searchResultCache.evictListing(savedProperty);
 
         // Notify via RabbitMQ (Safe)
         try {
@@ -0,0 +1,211 @@
+package com.propertyservice.propertyservice.service;
+
+import com.propertyservice.propertyservice.config.RabbitConfig;
+import com.propertyservice.propertyservice.dto.AvailabilityChangedEvent;
+import com.propertyservice.propertyservice.entity.AvailabilityOutboxEvent;
+import com.propertyservice.propertyservice.enu.AvailabilityStatus;
+import com.propertyservice.propertyservice.repository.AvailabilityOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Publication des événements AVAILABILITY_CHANGED via une outbox transactionnelle.
+ *
+ * Les méthodes record* écrivent dans availability_outbox et doivent être appelées dans
+ * la transaction qui modifie le calendrier : l'événement existe si et seulement si le
+ * changement est commité. Le relais publie ensuite sur RabbitMQ et ne supprime une ligne
+ * qu'une fois la publication confirmée par le broker (livraison au moins une fois).
+ *
+ * Chaque changement reçoit une version par propriété, attribuée sous verrou de ligne et donc
+ * croissante dans l'ordre des commits ; les événements d'un même changement la partagent.
+ * L'ordre de livraison n'est pas garanti (plusieurs relais, SKIP LOCKED) : un consommateur
+ * compare les versions nuit par nuit et n'ignore que celles strictement plus anciennes.
+ */
+@Slf4j
+@Component
+public class AvailabilityEventPublisher {
+
+    private final AvailabilityOutboxRepository outboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final Counter published;
+
+    @Value("${app.availability.events.relay-batch-size:500}")
+    private int relayBatchSize;
+
+    @Value("${app.availability.events.confirm-timeout-ms:10000}")
+    private long confirmTimeoutMs;
+
+    public AvailabilityEventPublisher(AvailabilityOutboxRepository outboxRepository,
+                                      RabbitTemplate rabbitTemplate,
+                                      MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.published = Counter.builder("availability.events.published").register(meterRegistry);
+    }
+
+    // ========== Enregistrement (dans la transaction appelante) ==========
+
+    public void recordRange(Long propertyId, LocalDate startDate, LocalDate endDate, AvailabilityStatus status) {
+        Long version = outboxRepository.nextVersion(propertyId);
+        outboxRepository.save(outboxEvent(propertyId, startDate, endDate, status, version));
+    }
+
+    /**
+     * Regroupe les dates en suites consécutives : un événement par période, pas par nuit.
+     */
+    public void recordDates(Long propertyId, Collection<LocalDate> dates, AvailabilityStatus status) {
+        if (dates.isEmpty()) {
+            return;
+        }
+        Long version = outboxRepository.nextVersion(propertyId);
+        List<AvailabilityOutboxEvent> events = new ArrayList<>();
+        LocalDate runStart = null;
+        LocalDate runEnd = null;
+        for (LocalDate date : new TreeSet<>(dates)) {
+            if (runEnd != null && date.equals(runEnd.plusDays(1))) {
+                runEnd = date;
+                continue;
+            }
+            if (runStart != null) {
+                events.add(outboxEvent(propertyId, runStart, runEnd, status, version));
+            }
+            runStart = date;
+            runEnd = date;
+        }
+        if (runStart != null) {
+            events.add(outboxEvent(propertyId, runStart, runEnd, status, version));
+        }
+        outboxRepository.saveAll(events);
+    }
+
+    /**
+     * À appeler avant la transition : seules les nuits encore dans l'un des statuts
+     * de départ produisent un événement, une requête rejouée n'en émet donc aucun
+     * et ne prend pas de version.
+     */
+    public int recordLockTokenChange(Long propertyId, String lockToken,
+                                     Set<AvailabilityStatus> fromStatuses, AvailabilityStatus newStatus) {
+        return outboxRepository.recordLockTokenChange(propertyId, lockToken, names(fromStatuses), newStatus.name());
+    }
+
+    public int recordDatesChange(Long propertyId, Collection<LocalDate> dates,
+                                 Set<AvailabilityStatus> fromStatuses, AvailabilityStatus newStatus) {
+        if (dates.isEmpty()) {
+            return 0;
+        }
+        return outboxRepository.recordDatesChange(propertyId, dates, names(fromStatuses), newStatus.name());
+    }
+
+    // ========== Relais ==========
+
+    /**
+     * Réserve un lot (bail claimed_until) dans une transaction courte, publie et attend les
+     * confirmations du broker (publisher confirms) hors transaction, puis supprime les seuls
+     * événements acquittés. Un message refusé ou sans réponse est rendu à l'outbox et sera
+     * republié au prochain passage ; un relais arrêté en cours de lot laisse expirer son bail.
+     */
+    @Scheduled(fixedDelayString = "${app.availability.events.relay-interval-ms:1000}")
+    public void relayPendingEvents() {
+        try {
+            boolean fullBatch;
+            do {
+                fullBatch = relayBatch();
+            } while (fullBatch);
+        } catch (Exception e) {
+            // Les événements non supprimés restent dans l'outbox : ils seront republiés
+            log.warn("Failed to relay availability events: {}", e.getMessage());
+        }
+    }
+
+    private boolean relayBatch() {
+        // Le bail couvre l'attente des confirmations avec une marge
+        List<AvailabilityOutboxEvent> batch = new ArrayList<>(
+                outboxRepository.claimPendingBatch(relayBatchSize, 3 * confirmTimeoutMs));
+        batch.sort(Comparator.comparing(AvailabilityOutboxEvent::getId));
+
+        List<CorrelationData> confirms = new ArrayList<>(batch.size());
+        try {
+            for (AvailabilityOutboxEvent event : batch) {
+                CorrelationData correlation = new CorrelationData(String.valueOf(event.getId()));
+                rabbitTemplate.convertAndSend(RabbitConfig.BOOKING_EXCHANGE,
+                        RabbitConfig.AVAILABILITY_CHANGED, toMessage(event), correlation);
+                confirms.add(correlation);
+            }
+        } catch (RuntimeException e) {
+            // Broker injoignable : le lot est rendu sans attendre la fin du bail
+            outboxRepository.releaseClaims(batch.stream().map(AvailabilityOutboxEvent::getId).toList());
+            throw e;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        List<Long> acked = new ArrayList<>(batch.size());
+        List<Long> unconfirmed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            (isAcked(confirms.get(i), deadline) ? acked : unconfirmed).add(batch.get(i).getId());
+        }
+        if (!acked.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(acked);
+            published.increment(acked.size());
+        }
+        if (!unconfirmed.isEmpty()) {
+            outboxRepository.releaseClaims(unconfirmed);
+            log.warn("{} availability events not confirmed by the broker, will retry", unconfirmed.size());
+            return false;
+        }
+        return batch.size() == relayBatchSize;
+    }
+
+    // Délai global pour le lot : un broker muet ne bloque pas le relais relayBatchSize fois
+    private static boolean isAcked(CorrelationData correlation, long deadline) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS).isAck();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static AvailabilityChangedEvent toMessage(AvailabilityOutboxEvent event) {
+        return AvailabilityChangedEvent.builder()
+                .propertyId(event.getPropertyId())
+                .startDate(event.getStartDate())
+                .endDate(event.getEndDate())
+                .status(event.getStatus().name())
+                .version(event.getVersion())
+                .build();
+    }
+
+    private static AvailabilityOutboxEvent outboxEvent(Long propertyId, LocalDate startDate, LocalDate endDate,
+                                                       AvailabilityStatus status, Long version) {
+        return AvailabilityOutboxEvent.builder()
+                .propertyId(propertyId)
+                .startDate(startDate)
+                .endDate(endDate)
+                .status(status)
+                .version(version)
+                .build();
+    }
+
+    private static Set<String> names(Set<AvailabilityStatus> statuses) {
+        return statuses.stream().map(Enum::name).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,337 @@
+package com.propertyservice.propertyservice.service;
+
+import com.propertyservice.propertyservice.enu.AvailabilityStatus;
+import com.propertyservice.propertyservice.repository.AvailabilityRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Index en mémoire des nuits indisponibles (LOCKED / BOOKED) par propriété.
+ * Un bit par jour sur une fenêtre glissante de deux ans : une vérification de période
+ * se fait sur quelques mots de 64 bits au lieu d'une requête SQL.
+ *
+ * L'index est reconstruit au démarrage depuis availability_calendar, puis tenu à jour
+ * après chaque commit. La base reste la référence : toute question hors fenêtre (ou
+ * index désactivé) renvoie Optional.empty() et l'appelant retombe sur SQL.
+ *
+ * Les écritures qui arrivent pendant une reconstruction sont appliquées à l'instantané
+ * courant et journalisées, puis rejouées sur le nouvel instantané avant sa publication :
+ * un commit intervenu après la lecture du calendrier n'est pas perdu.
+ */
+@Slf4j
+@Component
+public class AvailabilityIndex {
+
+    static final int WINDOW_DAYS = 731;
+    private static final int WORDS = (WINDOW_DAYS + 63) / 64;
+
+    private final AvailabilityRepository availabilityRepository;
+    private final boolean enabled;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer rebuildTimer;
+
+    // Remplacé en bloc à chaque reconstruction (la fenêtre glisse avec la date du jour)
+    private volatile Snapshot snapshot;
+
+    // Écritures reçues pendant une reconstruction, à rejouer ; null hors reconstruction
+    private final Object writeLock = new Object();
+    private List<Consumer<Snapshot>> pendingDuringRebuild;
+
+    private record Snapshot(long windowStart, Map<Long, AtomicLongArray> calendars) {
+    }
+
+    public AvailabilityIndex(AvailabilityRepository availabilityRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.availability.index.enabled:false}") boolean enabled) {
+        this.availabilityRepository = availabilityRepository;
+        this.enabled = enabled;
+        this.hits = Counter.builder("availability.index.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("availability.index.lookups").tag("result", "miss").register(meterRegistry);
+        this.rebuildTimer = Timer.builder("availability.index.rebuild").register(meterRegistry);
+        Gauge.builder("availability.index.properties", this, index -> {
+            Snapshot current = index.snapshot;
+            return current == null ? 0 : current.calendars().size();
+        }).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reconstruction nocturne : fait glisser la fenêtre et resynchronise avec les écritures
+     * faites par les autres réplicas.
+     */
+    @Scheduled(cron = "${app.availability.index.rebuild-cron:0 15 3 * * *}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        synchronized (writeLock) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+        try {
+            rebuildTimer.record(() -> {
+                LocalDate start = LocalDate.now();
+                long windowStart = start.toEpochDay();
+
+                Map<Long, AtomicLongArray> calendars = new ConcurrentHashMap<>();
+                List<Object[]> nights = availabilityRepository.findUnavailableNights(
+                        start, start.plusDays(WINDOW_DAYS - 1), AvailabilityStatus.UNAVAILABLE);
+                for (Object[] night : nights) {
+                    Long propertyId = (Long) night[0];
+                    int bit = (int) (((LocalDate) night[1]).toEpochDay() - windowStart);
+                    setBit(calendars.computeIfAbsent(propertyId, id -> new AtomicLongArray(WORDS)), bit);
+                }
+
+                Snapshot rebuilt = new Snapshot(windowStart, calendars);
+                int replayed;
+                synchronized (writeLock) {
+                    replayed = pendingDuringRebuild.size();
+                    pendingDuringRebuild.forEach(write -> write.accept(rebuilt));
+                    snapshot = rebuilt;
+                }
+                log.info("Availability index rebuilt: {} properties, {} unavailable nights, {} writes replayed",
+                        calendars.size(), nights.size(), replayed);
+            });
+        } finally {
+            synchronized (writeLock) {
+                pendingDuringRebuild = null;
+            }
+        }
+    }
+
+    // ========== Lectures ==========
+
+    /**
+     * @return true si aucune nuit de [startDate, endDate] n'est LOCKED/BOOKED,
+     * vide si l'index ne peut pas répondre.
+     */
+    public Optional<Boolean> isRangeFree(Long propertyId, LocalDate startDate, LocalDate endDate) {
+        Snapshot current = covering(startDate, endDate);
+        if (current == null) {
+            return Optional.empty();
+        }
+        AtomicLongArray words = current.calendars().get(propertyId);
+        return Optional.of(words == null || !anySet(words, bit(current, startDate), bit(current, endDate)));
+    }
+
+    public Optional<List<LocalDate>> getUnavailableDates(Long propertyId, LocalDate startDate, LocalDate endDate) {
+        Snapshot current = covering(startDate, endDate);
+        if (current == null) {
+            return Optional.empty();
+        }
+        List<LocalDate> dates = new ArrayList<>();
+        AtomicLongArray words = current.calendars().get(propertyId);
+        if (words != null) {
+            int from = bit(current, startDate);
+            int to = bit(current, endDate);
+            for (int w = from >>> 6; w <= to >>> 6; w++) {
+                long word = words.get(w) & mask(w, from, to);
+                while (word != 0) {
+                    int b = (w << 6) + Long.numberOfTrailingZeros(word);
+                    dates.add(LocalDate.ofEpochDay(current.windowStart() + b));
+                    word &= word - 1;
+                }
+            }
+        }
+        return Optional.of(dates);
+    }
+
+    /**
+     * Filtre « libre sur [startDate, endDate] » figé sur l'instantané courant, pour tester
+     * au fil de l'eau une suite de candidats issue de la recherche (quelques ns par test).
+     */
+    public Optional<LongPredicate> freeBetween(LocalDate startDate, LocalDate endDate) {
+        Snapshot current = covering(startDate, endDate);
+        if (current == null) {
+            return Optional.empty();
+        }
+        int from = bit(current, startDate);
+        int to = bit(current, endDate);
+        return Optional.of(propertyId -> {
+            AtomicLongArray words = current.calendars().get(propertyId);
+            return words == null || !anySet(words, from, to);
+        });
+    }
+
+    /**
+     * Propriétés ayant au moins une nuit indisponible sur [startDate, endDate],
+     * utilisé par la recherche pour exclure les annonces occupées.
+     */
+    public Optional<Set<Long>> getPropertiesUnavailableBetween(LocalDate startDate, LocalDate endDate) {
+        Snapshot current = covering(startDate, endDate);
+        if (current == null) {
+            return Optional.empty();
+        }
+        int from = bit(current, startDate);
+        int to = bit(current, endDate);
+        Set<Long> propertyIds = new HashSet<>();
+        current.calendars().forEach((propertyId, words) -> {
+            if (anySet(words, from, to)) {
+                propertyIds.add(propertyId);
+            }
+        });
+        return Optional.of(propertyIds);
+    }
+
+    // ========== Écritures (appliquées après commit) ==========
+
+    public void markUnavailable(Long propertyId, LocalDate startDate, LocalDate endDate) {
+        afterCommit(() -> write(current -> update(current, propertyId, startDate, endDate, true)));
+    }
+
+    public void markUnavailable(Long propertyId, Collection<LocalDate> dates) {
+        afterCommit(() -> write(current -> dates.forEach(date -> update(current, propertyId, date, date, true))));
+    }
+
+    public void markAvailable(Long propertyId, Collection<LocalDate> dates) {
+        afterCommit(() -> write(current -> dates.forEach(date -> update(current, propertyId, date, date, false))));
+    }
+
+    /**
+     * Recharge une seule propriété depuis la base, quand l'appelant ne sait pas
+     * précisément quelles nuits ont changé.
+     */
+    public void refresh(Long propertyId) {
+        afterCommit(() -> {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            // Lu hors verrou ; la plage couvre aussi la fenêtre d'une reconstruction en cours
+            LocalDate start = LocalDate.ofEpochDay(current.windowStart());
+            LocalDate end = LocalDate.ofEpochDay(Math.max(current.windowStart(), LocalDate.now().toEpochDay()))
+                    .plusDays(WINDOW_DAYS - 1);
+            List<LocalDate> dates = availabilityRepository.findUnavailableNightsForProperty(
+                    propertyId, start, end, AvailabilityStatus.UNAVAILABLE);
+            write(target -> {
+                AtomicLongArray words = new AtomicLongArray(WORDS);
+                dates.forEach(date -> setBit(words, bit(target, date)));
+                target.calendars().put(propertyId, words);
+            });
+        });
+    }
+
+    // Applique l'écriture à l'instantané publié et la journalise si une reconstruction est en cours
+    private void write(Consumer<Snapshot> write) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            if (current != null) {
+                write.accept(current);
+            }
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(write);
+            }
+        }
+    }
+
+    private static void update(Snapshot current, Long propertyId, LocalDate startDate, LocalDate endDate,
+                               boolean unavailable) {
+        long windowEnd = current.windowStart() + WINDOW_DAYS - 1;
+        int from = (int) (Math.max(startDate.toEpochDay(), current.windowStart()) - current.windowStart());
+        int to = (int) (Math.min(endDate.toEpochDay(), windowEnd) - current.windowStart());
+        if (from > to) {
+            return;
+        }
+        AtomicLongArray words = current.calendars().computeIfAbsent(propertyId, id -> new AtomicLongArray(WORDS));
+        for (int w = from >>> 6; w <= to >>> 6; w++) {
+            long m = mask(w, from, to);
+            if (unavailable) {
+                words.accumulateAndGet(w, m, (a, b) -> a | b);
+            } else {
+                words.accumulateAndGet(w, ~m, (a, b) -> a & b);
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ========== Bits ==========
+
+    private Snapshot covering(LocalDate startDate, LocalDate endDate) {
+        Snapshot current = snapshot;
+        if (!enabled || current == null
+                || startDate.toEpochDay() < current.windowStart()
+                || endDate.toEpochDay() >= current.windowStart() + WINDOW_DAYS) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return current;
+    }
+
+    private static int bit(Snapshot snapshot, LocalDate date) {
+        return (int) (date.toEpochDay() - snapshot.windowStart());
+    }
+
+    private static long mask(int word, int from, int to) {
+        long m = -1L;
+        if (word == from >>> 6) {
+            m &= -1L << (from & 63);
+        }
+        if (word == to >>> 6) {
+            m &= -1L >>> (63 - (to & 63));
+        }
+        return m;
+    }
+
+    private static boolean anySet(AtomicLongArray words, int from, int to) {
+        for (int w = from >>> 6; w <= to >>> 6; w++) {
+            if ((words.get(w) & mask(w, from, to)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void setBit(AtomicLongArray words, int bit) {
+        if (bit >= 0 && bit < WINDOW_DAYS) {
+            words.accumulateAndGet(bit >>> 6, 1L << (bit & 63), (a, b) -> a | b);
+        }
+    }
+}
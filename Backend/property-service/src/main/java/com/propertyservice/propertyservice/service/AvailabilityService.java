@@ -1,46 +1,167 @@
 package com.propertyservice.propertyservice.service;
 
+import com.propertyservice.propertyservice.dto.BatchAvailabilityRequest;
+import com.propertyservice.propertyservice.dto.CalendarMonthResponse;
 import com.propertyservice.propertyservice.dto.PriceCalculationResult;
-import com.propertyservice.propertyservice.entity.AvailabilityCalendar;
 import com.propertyservice.propertyservice.entity.Property;
 import com.propertyservice.propertyservice.enu.AvailabilityStatus;
 import com.propertyservice.propertyservice.enu.ListingStatus;
 import com.propertyservice.propertyservice.exception.PropertyNotFoundException;
 import com.propertyservice.propertyservice.repository.AvailabilityRepository;
 import com.propertyservice.propertyservice.repository.PropertyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AvailabilityService {
 
+    private static final int MAX_LOCK_ATTEMPTS = 3;
+
     private final AvailabilityRepository availabilityRepository;
     private final PropertyRepository propertyRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final LockExpiryWheel lockExpiryWheel;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final PropertyLockManager propertyLocks;
+    private final PricingService pricingService;
+    private final AvailabilityEventPublisher availabilityEvents;
+    private final SearchResultCache searchResultCache;
+
+    @Value("${app.availability.lock-sweep.batch-size:1000}")
+    private int lockSweepBatchSize;
+
+    // Stockage creux : seules les nuits non disponibles (ou à tarif spécial) ont une ligne
+    @Value("${app.availability.sparse-storage:false}")
+    private boolean sparseStorage;
+
+    @Value("${app.availability.horizon.days:365}")
+    private int horizonDays;
+
+    @Value("${app.availability.horizon.batch-size:500}")
+    private int horizonBatchSize;
+
+    // Dernière nuit matérialisée par ce processus ; null tant que l'horizon n'a pas été rempli
+    private volatile LocalDate horizonMaterializedUntil;
+
+    /**
+     * Réalimente la roue temporelle avec les verrous encore en base puis la démarre.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLockExpiryWheel() {
+        List<Object[]> activeLocks = availabilityRepository.findActiveLocks();
+        for (Object[] lock : activeLocks) {
+            lockExpiryWheel.schedule((Long) lock[0], (String) lock[1], (LocalDateTime) lock[2]);
+        }
+        lockExpiryWheel.start(this::releaseExpiredLock);
+        log.info("Lock expiry wheel started with {} active locks", activeLocks.size());
+    }
 
     public boolean isPropertyAvailable(Long propertyId, LocalDate startDate, LocalDate endDate) {
         Property property = propertyRepository.findById(propertyId)
                 .orElseThrow(() -> new PropertyNotFoundException("Property not found with id: " + propertyId));
 
+        return isAvailable(property, startDate, endDate);
+    }
+
+    // Étapes partagées, appliquées à une propriété déjà chargée
+    private boolean isAvailable(Property property, LocalDate startDate, LocalDate endDate) {
         if (property.getStatus() != ListingStatus.ACTIVE) {
             return false;
         }
 
         validateDates(startDate, endDate);
 
-        return areDatesAvailable(propertyId, startDate, endDate);
+        return availabilityIndex.isRangeFree(property.getId(), startDate, endDate)
+                .orElseGet(() -> areDatesAvailable(property.getId(), startDate, endDate));
+    }
+
+    /**
+     * Vérifie plusieurs (propriété, période) en un appel : l'index répond quand il le peut,
+     * le reste est tranché par une seule requête sur availability_calendar.
+     * Les périodes invalides (passées, inversées) sont simplement indisponibles.
+     */
+    @Transactional(readOnly = true)
+    public List<Boolean> checkAvailabilityBatch(List<BatchAvailabilityRequest.Check> checks) {
+        Set<Long> propertyIds = checks.stream()
+                .map(BatchAvailabilityRequest.Check::getPropertyId)
+                .collect(Collectors.toSet());
+        Set<Long> activeIds = new HashSet<>(propertyRepository.findIdsByIdInAndStatus(propertyIds, ListingStatus.ACTIVE));
+
+        LocalDate today = LocalDate.now();
+        Boolean[] results = new Boolean[checks.size()];
+        List<Integer> unresolved = new ArrayList<>();
+        for (int i = 0; i < checks.size(); i++) {
+            BatchAvailabilityRequest.Check check = checks.get(i);
+            if (!activeIds.contains(check.getPropertyId())
+                    || check.getStartDate().isAfter(check.getEndDate())
+                    || check.getStartDate().isBefore(today)) {
+                results[i] = false;
+                continue;
+            }
+            results[i] = availabilityIndex
+                    .isRangeFree(check.getPropertyId(), check.getStartDate(), check.getEndDate())
+                    .orElse(null);
+            if (results[i] == null) {
+                unresolved.add(i);
+            }
+        }
+
+        if (!unresolved.isEmpty()) {
+            Set<Long> ids = new HashSet<>();
+            LocalDate minStart = null;
+            LocalDate maxEnd = null;
+            for (int i : unresolved) {
+                BatchAvailabilityRequest.Check check = checks.get(i);
+                ids.add(check.getPropertyId());
+                minStart = minStart == null || check.getStartDate().isBefore(minStart) ? check.getStartDate() : minStart;
+                maxEnd = maxEnd == null || check.getEndDate().isAfter(maxEnd) ? check.getEndDate() : maxEnd;
+            }
+
+            Map<Long, List<LocalDate>> unavailableNights = new HashMap<>();
+            for (Object[] night : availabilityRepository.findUnavailableNightsForProperties(
+                    ids, minStart, maxEnd, AvailabilityStatus.UNAVAILABLE)) {
+                unavailableNights.computeIfAbsent((Long) night[0], id -> new ArrayList<>()).add((LocalDate) night[1]);
+            }
+
+            for (int i : unresolved) {
+                BatchAvailabilityRequest.Check check = checks.get(i);
+                results[i] = unavailableNights.getOrDefault(check.getPropertyId(), List.of()).stream()
+                        .noneMatch(date -> !date.isBefore(check.getStartDate()) && !date.isAfter(check.getEndDate()));
+            }
+        }
+
+        return Arrays.asList(results);
     }
 
     @Transactional
@@ -52,21 +173,17 @@ public class AvailabilityService {
             throw new RuntimeException("Unauthorized to block dates for this property");
         }
 
-        for (LocalDate date : dates) {
-            if (date.isBefore(LocalDate.now())) {
-                continue;
-            }
-
-            AvailabilityCalendar availability = availabilityRepository
-                    .findByPropertyIdAndDate(propertyId, date)
-                    .orElse(AvailabilityCalendar.builder()
-                            .property(property)
-                            .date(date)
-                            .status(AvailabilityStatus.AVAILABLE)
-                            .build());
+        LocalDate today = LocalDate.now();
+        List<LocalDate> futureDates = dates.stream()
+                .filter(date -> !date.isBefore(today))
+                .distinct()
+                .toList();
 
-            availability.setStatus(AvailabilityStatus.BOOKED);
-            availabilityRepository.save(availability);
+        if (!futureDates.isEmpty()) {
+            availabilityRepository.upsertBookedDates(propertyId, futureDates);
+            availabilityEvents.recordDates(propertyId, futureDates, AvailabilityStatus.BOOKED);
+            availabilityIndex.markUnavailable(propertyId, futureDates);
+            searchResultCache.evictDates(futureDates);
         }
 
         log.info("Dates blocked for property {} by user {}", propertyId, ownerId);
@@ -81,34 +198,23 @@ public class AvailabilityService {
             throw new RuntimeException("Unauthorized to unblock dates for this property");
         }
 
-        for (LocalDate date : dates) {
-                availabilityRepository.findByPropertyIdAndDate(propertyId, date)
-                    .ifPresent(availability -> {
-                        if (availability.getStatus() == AvailabilityStatus.BOOKED) {
-                            availability.setStatus(AvailabilityStatus.AVAILABLE);
-                            availabilityRepository.save(availability);
-                        }
-                    });
+        if (!dates.isEmpty()) {
+            // Événements calculés avant la mise à jour, sur les seules nuits réellement BOOKED
+            availabilityEvents.recordDatesChange(propertyId, dates,
+                    EnumSet.of(AvailabilityStatus.BOOKED), AvailabilityStatus.AVAILABLE);
+            availabilityRepository.unblockBookedDates(propertyId, dates);
+            // Seules les dates BOOKED sont libérées : on recharge la propriété depuis la base
+            availabilityIndex.refresh(propertyId);
+            searchResultCache.evictDates(dates);
         }
 
         log.info("Dates unblocked for property {} by user {}", propertyId, ownerId);
     }
 
     private boolean areDatesAvailable(Long propertyId, LocalDate startDate, LocalDate endDate) {
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            Optional<AvailabilityCalendar> calendarEntry =
-                    availabilityRepository.findByPropertyIdAndDate(propertyId, date);
-
-            // Si une entrée existe, vérifier son statut
-            if (calendarEntry.isPresent()) {
-                AvailabilityStatus status = calendarEntry.get().getStatus();
-                if (status == AvailabilityStatus.LOCKED ||
-                        status == AvailabilityStatus.BOOKED) {
-                    return false; // Date non disponible
-                }
-            }
-        }
-        return true;
+        // Une date est indisponible si une entrée LOCKED ou BOOKED existe sur la période
+        return !availabilityRepository.existsByPropertyIdAndDateBetweenAndStatusIn(
+                propertyId, startDate, endDate, AvailabilityStatus.UNAVAILABLE);
     }
 
     private void validateDates(LocalDate startDate, LocalDate endDate) {
@@ -121,39 +227,50 @@ public class AvailabilityService {
         }
     }
 
-    @Transactional
+    /**
+     * Pose le verrou sans vérification préalable : l'upsert conditionnel ne prend que les nuits
+     * encore AVAILABLE (ou absentes), et si une seule nuit manque la transaction est annulée.
+     * Deux verrous concurrents sur des nuits communes ne peuvent donc pas réussir tous les deux.
+     * Les échecs transitoires (deadlock, verrou non obtenu) sont rejoués quelques fois.
+     */
     public String lockDatesForReservation(Long propertyId, LocalDate startDate,
                                           LocalDate endDate, Long tenantId) {
 
-        Property property = propertyRepository.findById(propertyId)
-                .orElseThrow(() -> new PropertyNotFoundException("Property not found"));
+        if (!propertyRepository.existsById(propertyId)) {
+            throw new PropertyNotFoundException("Property not found");
+        }
 
         validateDates(startDate, endDate);
 
-        if (!areDatesAvailable(propertyId, startDate, endDate)) {
-            throw new RuntimeException("Dates not available for reservation");
-        }
-
         String lockToken = UUID.randomUUID().toString();
         LocalDateTime expiresAt = LocalDateTime.now().plusHours(1); // Augmenté de 15 min à 1h pour tests blockchain
-
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            AvailabilityCalendar availability = availabilityRepository
-                    .findByPropertyIdAndDate(propertyId, date)
-                    .orElse(AvailabilityCalendar.builder()
-                            .property(property)
-                            .date(date)
-                            .status(AvailabilityStatus.AVAILABLE)
-                            .build());
-
-
-            availability.setStatus(AvailabilityStatus.LOCKED);
-            availability.setLockToken(lockToken);
-            availability.setLockExpiresAt(expiresAt);
-            availability.setTenantId(tenantId);
-
-            availabilityRepository.save(availability);
-        }
+        long nights = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+
+        propertyLocks.run(propertyId, () -> {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        // Un seul INSERT ... ON CONFLICT pour toutes les nuits du séjour
+                        int locked = availabilityRepository.upsertLockedRange(
+                                propertyId, startDate, endDate, lockToken, expiresAt, tenantId);
+                        if (locked != nights) {
+                            throw new RuntimeException("Dates not available for reservation");
+                        }
+                        availabilityEvents.recordRange(propertyId, startDate, endDate, AvailabilityStatus.LOCKED);
+                        availabilityIndex.markUnavailable(propertyId, startDate, endDate);
+                        searchResultCache.evictDates(startDate, endDate);
+                    });
+                    break;
+                } catch (ConcurrencyFailureException e) {
+                    if (attempt >= MAX_LOCK_ATTEMPTS) {
+                        log.warn("Lock contention on property {} after {} attempts: {}", propertyId, attempt, e.getMessage());
+                        throw new RuntimeException("Dates not available for reservation");
+                    }
+                    log.debug("Retrying lock on property {} (attempt {}): {}", propertyId, attempt, e.getMessage());
+                }
+            }
+        });
+        lockExpiryWheel.schedule(propertyId, lockToken, expiresAt);
 
         log.info("🔐 Web3 Lock Created: property={}, tenant={}, token={}, dates={} to {}. Waiting for MetaMask transaction.",
                 propertyId, tenantId, lockToken, startDate, endDate);
@@ -164,82 +281,176 @@ public class AvailabilityService {
      * Méthode appelée par Booking-Service quand le paiement blockchain est réussi
      * Booking-Service fera : POST /api/properties/{id}/availability/confirm/{token}
      */
-    @Transactional
     public void confirmReservation(Long propertyId, String lockToken) {
-        List<AvailabilityCalendar> lockedDates =
-                availabilityRepository.findByPropertyIdAndLockToken(propertyId, lockToken);
+        propertyLocks.run(propertyId, () -> transactionTemplate.executeWithoutResult(status -> {
+            // LOCKED -> BOOKED en une instruction ; une confirmation rejouée retrouve les nuits BOOKED
+            // Le tenantId et le lockToken restent pour historique
+            availabilityEvents.recordLockTokenChange(propertyId, lockToken,
+                    EnumSet.of(AvailabilityStatus.LOCKED), AvailabilityStatus.BOOKED);
+            int confirmed = availabilityRepository.confirmLock(propertyId, lockToken);
+
+            if (confirmed == 0) {
+                throw new RuntimeException("Invalid or expired lock token: " + lockToken);
+            }
+            lockExpiryWheel.cancel(lockToken);
 
-        if (lockedDates.isEmpty()) {
-            throw new RuntimeException("Invalid or expired lock token: " + lockToken);
-        }
+            log.info("✅ Reservation confirmed: property={}, token={}", propertyId, lockToken);
+        }));
+    }
+
+    public List<LocalDate> getUnavailableDates(Long propertyId, LocalDate start, LocalDate end) {
+        return availabilityIndex.getUnavailableDates(propertyId, start, end)
+                .orElseGet(() -> availabilityRepository.findUnavailableNightsForProperty(
+                        propertyId, start, end, AvailabilityStatus.UNAVAILABLE));
+    }
 
-        // IMPORTANT : On ne marque PAS comme "BOOKED" ici
-        // On garde le statut PENDING_RESERVATION mais on enlève juste le verrou
-        // Booking-Service gère le statut final dans sa propre base
-
-        for (AvailabilityCalendar date : lockedDates) {
-            date.setStatus(AvailabilityStatus.BOOKED);
-            // Mais on enlève le verrou temporaire
-            date.setLockToken(null);
-            date.setLockExpiresAt(null);
-            // Le tenantId reste pour historique
-            availabilityRepository.save(date);
+    /**
+     * Calendrier compact pour le sélecteur de dates : un masque de bits par mois
+     * et les seuls multiplicateurs de prix différents de 1.
+     */
+    public List<CalendarMonthResponse> getCalendarMonths(Long propertyId, YearMonth from, int months) {
+        LocalDate start = from.atDay(1);
+        LocalDate end = from.plusMonths(months - 1L).atEndOfMonth();
+
+        int[] masks = new int[months];
+        List<Map<Integer, BigDecimal>> multipliers = new ArrayList<>(months);
+        for (int i = 0; i < months; i++) {
+            multipliers.add(new TreeMap<>());
         }
 
-        log.info("✅ Reservation confirmed: property={}, token={}", propertyId, lockToken);
-    }
+        for (Object[] night : availabilityRepository.findCalendarNights(
+                propertyId, start, end, AvailabilityStatus.UNAVAILABLE)) {
+            LocalDate date = (LocalDate) night[0];
+            AvailabilityStatus status = (AvailabilityStatus) night[1];
+            BigDecimal multiplier = (BigDecimal) night[2];
+            int month = (int) ChronoUnit.MONTHS.between(from, YearMonth.from(date));
 
-    public List<LocalDate> getUnavailableDates(Long propertyId, LocalDate start, LocalDate end) {
-        return availabilityRepository.findByPropertyIdAndDateBetween(propertyId, start, end)
-                .stream()
-                .filter(a -> a.getStatus() == AvailabilityStatus.BOOKED || a.getStatus() == AvailabilityStatus.LOCKED)
-                .map(AvailabilityCalendar::getDate)
-                .toList();
+            if (AvailabilityStatus.UNAVAILABLE.contains(status)) {
+                masks[month] |= 1 << (date.getDayOfMonth() - 1);
+            }
+            if (multiplier != null && multiplier.compareTo(BigDecimal.ONE) != 0) {
+                multipliers.get(month).put(date.getDayOfMonth(), multiplier);
+            }
+        }
+
+        List<CalendarMonthResponse> calendar = new ArrayList<>(months);
+        for (int i = 0; i < months; i++) {
+            calendar.add(CalendarMonthResponse.builder()
+                    .month(from.plusMonths(i).toString())
+                    .unavailableMask(masks[i])
+                    .priceMultipliers(multipliers.get(i))
+                    .build());
+        }
+        return calendar;
     }
 
     /**
      * Méthode appelée par Booking-Service si le paiement échoue ou timeout
      * Booking-Service fera : POST /api/properties/{id}/availability/release/{token}
      */
-    @Transactional
     public void releaseDates(Long propertyId, String lockToken) {
-        List<AvailabilityCalendar> lockedDates =
-                availabilityRepository.findByPropertyIdAndLockToken(propertyId, lockToken);
-
-        for (AvailabilityCalendar date : lockedDates) {
-            if (date.getStatus() == AvailabilityStatus.LOCKED) {
-                // Si c'était encore en attente, on remet disponible
-                date.setStatus(AvailabilityStatus.AVAILABLE);
+        propertyLocks.run(propertyId, () -> transactionTemplate.executeWithoutResult(status -> {
+            // Seules les nuits encore LOCKED redeviennent disponibles ; rejouer la libération est sans effet
+            availabilityEvents.recordLockTokenChange(propertyId, lockToken,
+                    EnumSet.of(AvailabilityStatus.LOCKED), AvailabilityStatus.AVAILABLE);
+            int released = availabilityRepository.releaseLock(propertyId, lockToken);
+
+            lockExpiryWheel.cancel(lockToken);
+            if (released > 0) {
+                availabilityIndex.refresh(propertyId);
+                searchResultCache.evictDated();
             }
-            date.setLockToken(null);
-            date.setLockExpiresAt(null);
-            date.setTenantId(null);
-            availabilityRepository.save(date);
-        }
 
-        log.info("✅ Dates released: property={}, token={}", propertyId, lockToken);
+            log.info("✅ Dates released: property={}, token={}", propertyId, lockToken);
+        }));
     }
 
     /**
-     * Nettoyage automatique des verrous expirés (toutes les minutes)
-     * Les dates reviennent automatiquement disponibles après 15 min
+     * Appelée par la roue temporelle à l'échéance exacte d'un verrou.
+     * Sans effet si le verrou a été confirmé ou libéré entre-temps.
      */
-    @Scheduled(fixedRate = 60000) // 60,000 ms = 1 minute
-    @Transactional
+    public void releaseExpiredLock(Long propertyId, String lockToken) {
+        propertyLocks.run(propertyId, () -> {
+            Integer released = transactionTemplate.execute(status -> {
+                availabilityEvents.recordLockTokenChange(propertyId, lockToken,
+                        EnumSet.of(AvailabilityStatus.LOCKED), AvailabilityStatus.AVAILABLE);
+                int count = availabilityRepository.releaseExpiredLock(propertyId, lockToken, LocalDateTime.now());
+                if (count == 0) {
+                    // Confirmé ou prolongé entre-temps : pas d'événement
+                    status.setRollbackOnly();
+                }
+                return count;
+            });
+            if (released != null && released > 0) {
+                availabilityIndex.refresh(propertyId);
+                searchResultCache.evictDated();
+                log.info("⏱️ Lock expired: property={}, token={}, nights={}", propertyId, lockToken, released);
+            }
+        });
+    }
+
+    /**
+     * Filet de sécurité : la roue temporelle libère déjà chaque verrou à l'heure,
+     * ce balayage rattrape ceux posés par un autre réplica ou perdus au redémarrage.
+     * Une seule instruction UPDATE par lot, chaque lot dans sa propre transaction :
+     * un arriéré de 100k verrous ne tient jamais une transaction géante.
+     */
+    @Scheduled(fixedRateString = "${app.availability.lock-sweep.interval-ms:60000}")
     public void cleanupExpiredLocks() {
+        Timer.Sample sample = Timer.start(meterRegistry);
         LocalDateTime now = LocalDateTime.now();
-        List<AvailabilityCalendar> expiredLocks =
-                availabilityRepository.findByLockExpiresAtBefore(now);
-
-        if (!expiredLocks.isEmpty()) {
-            for (AvailabilityCalendar date : expiredLocks) {
-                date.setStatus(AvailabilityStatus.AVAILABLE);
-                date.setLockToken(null);
-                date.setLockExpiresAt(null);
-                date.setTenantId(null);
-                availabilityRepository.save(date);
-            }
-            log.info("🧹 Cleaned up {} expired locks", expiredLocks.size());
+        int swept = 0;
+
+        int released;
+        do {
+            // Libération et événements du lot dans la même transaction
+            released = transactionTemplate.execute(status -> {
+                // Propriétés dans l'ordre des id : deux balayages concurrents prennent les compteurs
+                // de version (availability_versions) dans le même ordre
+                Map<Long, List<LocalDate>> nightsByProperty = new TreeMap<>();
+                List<Object[]> nights = availabilityRepository.releaseExpiredLocks(now, lockSweepBatchSize);
+                for (Object[] night : nights) {
+                    Long propertyId = ((Number) night[0]).longValue();
+                    LocalDate date = night[1] instanceof LocalDate localDate
+                            ? localDate : ((java.sql.Date) night[1]).toLocalDate();
+                    nightsByProperty.computeIfAbsent(propertyId, id -> new ArrayList<>()).add(date);
+                }
+                nightsByProperty.forEach((propertyId, dates) -> {
+                    availabilityEvents.recordDates(propertyId, dates, AvailabilityStatus.AVAILABLE);
+                    availabilityIndex.markAvailable(propertyId, dates);
+                    searchResultCache.evictDates(dates);
+                });
+                return nights.size();
+            });
+            swept += released;
+        } while (released == lockSweepBatchSize);
+
+        sample.stop(meterRegistry.timer("availability.locks.sweep.duration"));
+        meterRegistry.counter("availability.locks.swept").increment(swept);
+
+        if (swept > 0) {
+            log.info("🧹 Cleaned up {} expired locks", swept);
+        }
+    }
+
+    /**
+     * Stockage creux : supprime par lots les lignes AVAILABLE laissées par les libérations,
+     * le déblocage ou l'ancien mode (365 lignes générées à l'approbation).
+     */
+    @Scheduled(fixedDelayString = "${app.availability.compaction-interval-ms:600000}")
+    public void compactAvailableNights() {
+        if (!sparseStorage) {
+            return;
+        }
+        int deleted = 0;
+        int batch;
+        do {
+            batch = availabilityRepository.deleteImplicitlyAvailableNights(lockSweepBatchSize);
+            deleted += batch;
+        } while (batch == lockSweepBatchSize);
+
+        if (deleted > 0) {
+            log.info("🧹 Compacted {} implicitly available calendar rows", deleted);
         }
     }
 
@@ -256,6 +467,10 @@ public class AvailabilityService {
         // Validation des dates
         validateDates(startDate, endDate);
 
+        return priceStay(property, startDate, endDate);
+    }
+
+    private BigDecimal priceStay(Property property, LocalDate startDate, LocalDate endDate) {
         // Calculer le nombre de nuits
         long numberOfNights = ChronoUnit.DAYS.between(startDate, endDate);
 
@@ -270,12 +485,11 @@ public class AvailabilityService {
                             ", requested: " + numberOfNights);
         }
 
-        // Calcul: prix/nuit × nombre de nuits
-        BigDecimal totalPrice = property.getPricePerNight()
-                .multiply(BigDecimal.valueOf(numberOfNights));
+        // Calcul nuit par nuit : prix/nuit × multiplicateur du calendrier
+        BigDecimal totalPrice = pricingService.quoteTotal(property, startDate, endDate);
 
         log.info("💰 Blockchain Quote (ETH): property={}, nights={}, price/night={}, total={}",
-                propertyId, numberOfNights, property.getPricePerNight(), totalPrice);
+                property.getId(), numberOfNights, property.getPricePerNight(), totalPrice);
 
         return totalPrice;
     }
@@ -283,18 +497,18 @@ public class AvailabilityService {
     public PriceCalculationResult calculatePriceWithAvailability(
             Long propertyId, LocalDate startDate, LocalDate endDate, Long tenantId) {
 
-        // 1. Vérifier disponibilité
-        boolean isAvailable = isPropertyAvailable(propertyId, startDate, endDate);
+        // Une seule lecture de la propriété, partagée par toutes les étapes
+        Property property = propertyRepository.findById(propertyId)
+                .orElseThrow(() -> new PropertyNotFoundException("Property not found with id: " + propertyId));
 
-        if (!isAvailable) {
+        // 1. Vérifier disponibilité (statut, dates, calendrier)
+        if (!isAvailable(property, startDate, endDate)) {
             throw new RuntimeException("Property not available for these dates");
         }
 
-        // 2. Calculer prix
-        BigDecimal totalPrice = calculateTotalPrice(propertyId, startDate, endDate);
+        // 2. Calculer prix (séjour minimum inclus)
+        BigDecimal totalPrice = priceStay(property, startDate, endDate);
 
-        // 3. Vérifier séjour minimum
-        Property property = propertyRepository.findById(propertyId).orElseThrow();
         long numberOfNights = ChronoUnit.DAYS.between(startDate, endDate);
 
         return PriceCalculationResult.builder()
@@ -309,29 +523,52 @@ public class AvailabilityService {
                 .minStayNights(property.getMinStayNights())
                 .build();
     }
-    @Transactional
-    public void generateAvailabilityForYear(Long propertyId) {
-        Property property = propertyRepository.findById(propertyId)
-                .orElseThrow(() -> new PropertyNotFoundException("Property not found"));
+    /**
+     * Fait avancer l'horizon du calendrier chaque nuit : matérialise les jours qui entrent
+     * dans la fenêtre pour toutes les propriétés actives, par lots d'identifiants.
+     * Le premier passage après le démarrage remplit tout l'horizon (INSERT ... ON CONFLICT,
+     * les nuits déjà présentes sont ignorées), les suivants ne génèrent que les jours
+     * apparus depuis le passage précédent, rattrapage des passages manqués compris.
+     * Les nuits plus proches sont créées à la demande par les verrous et blocages,
+     * l'approbation d'une annonce n'écrit donc plus rien.
+     */
+    @Scheduled(cron = "${app.availability.horizon.cron:0 30 2 * * *}")
+    public void rollCalendarHorizon() {
+        if (sparseStorage) {
+            // Une nuit sans ligne est disponible : rien à générer
+            return;
+        }
 
         LocalDate today = LocalDate.now();
-        List<AvailabilityCalendar> calendars = new java.util.ArrayList<>();
-
-        for (int i = 0; i < 365; i++) {
-            LocalDate date = today.plusDays(i);
-            // Check if already exists to avoid duplicates if re-run
-            if (availabilityRepository.findByPropertyIdAndDate(propertyId, date).isEmpty()) {
-                calendars.add(AvailabilityCalendar.builder()
-                        .property(property)
-                        .date(date)
-                        .status(AvailabilityStatus.AVAILABLE)
-                        .priceMultiplier(BigDecimal.ONE) // Default multiplier
-                        .build());
-            }
+        LocalDate endDate = today.plusDays(horizonDays - 1);
+        LocalDate materializedUntil = horizonMaterializedUntil;
+        LocalDate startDate = materializedUntil == null || materializedUntil.isBefore(today)
+                ? today
+                : materializedUntil.plusDays(1);
+        if (startDate.isAfter(endDate)) {
+            return;
         }
 
-        availabilityRepository.saveAll(calendars);
-        log.info("Generated availability for property {} for the next 365 days", propertyId);
+        long afterId = 0;
+        int properties = 0;
+        int nights = 0;
+
+        List<Long> propertyIds;
+        do {
+            propertyIds = propertyRepository.findIdsByStatusAfter(
+                    ListingStatus.ACTIVE, afterId, PageRequest.of(0, horizonBatchSize));
+            if (propertyIds.isEmpty()) {
+                break;
+            }
+            nights += availabilityRepository.materializeNights(propertyIds, startDate, endDate);
+            properties += propertyIds.size();
+            afterId = propertyIds.get(propertyIds.size() - 1);
+        } while (propertyIds.size() == horizonBatchSize);
+
+        // Avancé seulement si tous les lots ont abouti : une exception rejoue la même fenêtre
+        horizonMaterializedUntil = endDate;
+        log.info("Calendar horizon rolled from {} to {}: {} properties, {} nights created",
+                startDate, endDate, properties, nights);
     }
 
     /**
@@ -345,43 +582,37 @@ public class AvailabilityService {
      * @param lockToken Token de verrouillage à valider
      * @param blockchainTxHash Hash de la transaction Ethereum pour traçabilité
      */
-    @Transactional
     public void blockDatesForBooking(Long propertyId, LocalDate startDate, LocalDate endDate, String lockToken, String blockchainTxHash) {
-        log.info("🔗 Processing blockchain confirmation: property={}, token={}, txHash={}", propertyId, lockToken, blockchainTxHash);
-
-        Property property = propertyRepository.findById(propertyId)
-                .orElseThrow(() -> new PropertyNotFoundException("Property not found with id: " + propertyId));
+        propertyLocks.run(propertyId, () -> transactionTemplate.executeWithoutResult(status -> {
+            log.info("🔗 Processing blockchain confirmation: property={}, token={}, txHash={}", propertyId, lockToken, blockchainTxHash);
 
-        if (property.getStatus() != ListingStatus.ACTIVE) {
-            throw new RuntimeException("Cannot book an inactive property. Transaction: " + blockchainTxHash);
-        }
+            Property property = propertyRepository.findById(propertyId)
+                    .orElseThrow(() -> new PropertyNotFoundException("Property not found with id: " + propertyId));
 
-        validateDates(startDate, endDate);
+            if (property.getStatus() != ListingStatus.ACTIVE) {
+                throw new RuntimeException("Cannot book an inactive property. Transaction: " + blockchainTxHash);
+            }
 
-        // Récupérer les entrées verrouillées avec ce token
-        List<AvailabilityCalendar> lockedDates = availabilityRepository.findByPropertyIdAndLockToken(propertyId, lockToken);
+            validateDates(startDate, endDate);
 
-        if (lockedDates.isEmpty()) {
-            log.error("❌ Blockchain Tx {} failed validation: No dates found for token {}", blockchainTxHash, lockToken);
-            throw new RuntimeException("Invalid or expired lock token: " + lockToken);
-        }
+            // LOCKED (non expiré) -> BOOKED en une instruction ; rejouer la même transaction est sans effet
+            availabilityEvents.recordLockTokenChange(propertyId, lockToken,
+                    EnumSet.of(AvailabilityStatus.LOCKED), AvailabilityStatus.BOOKED);
+            int booked = availabilityRepository.confirmUnexpiredLock(propertyId, lockToken, LocalDateTime.now());
 
-        // Vérification de l'expiration du verrou sur la première date trouvée (car elles partagent le même token/expiration)
-        LocalDateTime now = LocalDateTime.now();
-        if (lockedDates.get(0).getLockExpiresAt() != null && lockedDates.get(0).getLockExpiresAt().isBefore(now)) {
-            log.error("❌ Blockchain Tx {} received for expired lock token {}", blockchainTxHash, lockToken);
-            throw new RuntimeException("Lock token has expired. Please retry the booking flow.");
-        }
+            if (booked == 0) {
+                // Chemin d'échec uniquement : distinguer verrou expiré et token inconnu
+                if (availabilityRepository.existsByPropertyIdAndLockToken(propertyId, lockToken)) {
+                    log.error("❌ Blockchain Tx {} received for expired lock token {}", blockchainTxHash, lockToken);
+                    throw new RuntimeException("Lock token has expired. Please retry the booking flow.");
+                }
+                log.error("❌ Blockchain Tx {} failed validation: No dates found for token {}", blockchainTxHash, lockToken);
+                throw new RuntimeException("Invalid or expired lock token: " + lockToken);
+            }
 
-        // Marquer comme BOOKED et nettoyer les champs de verrouillage
-        for (AvailabilityCalendar date : lockedDates) {
-            date.setStatus(AvailabilityStatus.BOOKED);
-            date.setLockToken(null);
-            date.setLockExpiresAt(null);
-            // On garde le tenantId pour l'historique de qui a réservé
-            availabilityRepository.save(date);
-        }
+            lockExpiryWheel.cancel(lockToken);
 
-        log.info("✅ ETH Payment confirmed! Dates blocked definitively for property {}. TxHash: {}", propertyId, blockchainTxHash);
+            log.info("✅ ETH Payment confirmed! Dates blocked definitively for property {}. TxHash: {}", propertyId, blockchainTxHash);
+        }));
     }
 }
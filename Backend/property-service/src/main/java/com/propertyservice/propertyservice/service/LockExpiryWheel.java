@@ -0,0 +1,179 @@
+package com.propertyservice.propertyservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Roue temporelle (hashed timing wheel) qui libère chaque verrou de réservation
+ * à son expiration exacte, à la seconde près.
+ *
+ * 512 cases d'une seconde ; un verrou plus lointain fait plusieurs tours (rounds)
+ * avant d'expirer. Les cases ne sont manipulées que par le thread de la roue ;
+ * les autres threads passent par la file pending et la map scheduled.
+ * Les libérations (une transaction chacune) partent sur un pool dédié : une base
+ * lente ne retarde pas le tick suivant.
+ */
+@Slf4j
+@Component
+public class LockExpiryWheel {
+
+    private static final long TICK_MS = 1000;
+    private static final int SLOTS = 512;
+
+    private final List<List<Entry>> wheel = new ArrayList<>(SLOTS);
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final Map<String, Entry> scheduled = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lock-expiry-wheel");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService releases;
+
+    private volatile BiConsumer<Long, String> expiryHandler;
+    private long tick; // thread de la roue uniquement
+
+    private static final class Entry {
+        private final Long propertyId;
+        private final String lockToken;
+        private final long deadline;
+        private long rounds;
+        private volatile boolean cancelled;
+
+        private Entry(Long propertyId, String lockToken, long deadline) {
+            this.propertyId = propertyId;
+            this.lockToken = lockToken;
+            this.deadline = deadline;
+        }
+    }
+
+    public LockExpiryWheel(MeterRegistry meterRegistry,
+                           @Value("${app.availability.lock-expiry.release-threads:4}") int releaseThreads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.releases = Executors.newFixedThreadPool(releaseThreads, runnable -> {
+            Thread thread = new Thread(runnable, "lock-expiry-release-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < SLOTS; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        Gauge.builder("availability.locks.scheduled", scheduled, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Démarre la roue ; handler reçoit (propertyId, lockToken) de chaque verrou arrivé à échéance.
+     */
+    public void start(BiConsumer<Long, String> handler) {
+        this.expiryHandler = handler;
+        ticker.scheduleAtFixedRate(this::advance, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public void schedule(Long propertyId, String lockToken, LocalDateTime expiresAt) {
+        long deadline = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Entry entry = new Entry(propertyId, lockToken, deadline);
+        Entry previous = scheduled.put(lockToken, entry);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        pending.add(entry);
+    }
+
+    public void cancel(String lockToken) {
+        Entry entry = scheduled.remove(lockToken);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        releases.shutdownNow();
+    }
+
+    private void advance() {
+        try {
+            long now = System.currentTimeMillis();
+            for (Entry entry; (entry = pending.poll()) != null; ) {
+                place(entry, now);
+            }
+
+            List<Entry> expired = new ArrayList<>();
+            Iterator<Entry> bucket = wheel.get((int) (tick % SLOTS)).iterator();
+            List<Entry> early = new ArrayList<>();
+            while (bucket.hasNext()) {
+                Entry entry = bucket.next();
+                if (entry.cancelled) {
+                    bucket.remove();
+                } else if (entry.rounds > 0) {
+                    entry.rounds--;
+                } else {
+                    bucket.remove();
+                    if (entry.deadline <= now) {
+                        expired.add(entry);
+                    } else {
+                        early.add(entry);
+                    }
+                }
+            }
+            tick++;
+            early.forEach(entry -> place(entry, now));
+
+            for (Entry entry : expired) {
+                if (scheduled.remove(entry.lockToken, entry)) {
+                    fire(entry);
+                }
+            }
+        } catch (Exception e) {
+            // Ne jamais laisser mourir la tâche planifiée
+            log.error("Lock expiry wheel tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void place(Entry entry, long now) {
+        long ticksAway = Math.max(0, (entry.deadline - now + TICK_MS - 1) / TICK_MS);
+        entry.rounds = ticksAway / SLOTS;
+        wheel.get((int) ((tick + ticksAway) % SLOTS)).add(entry);
+    }
+
+    private void fire(Entry entry) {
+        try {
+            releases.execute(() -> release(entry));
+        } catch (RejectedExecutionException e) {
+            // Arrêt en cours : le balayage périodique reprendra ce verrou
+            log.debug("Lock expiry release rejected for {}: {}", entry.lockToken, e.getMessage());
+        }
+    }
+
+    private void release(Entry entry) {
+        try {
+            expiryHandler.accept(entry.propertyId, entry.lockToken);
+        } catch (Exception e) {
+            // Le balayage périodique reprendra ce verrou
+            log.warn("Failed to release expired lock {} on property {}: {}",
+                    entry.lockToken, entry.propertyId, e.getMessage());
+        }
+    }
+}
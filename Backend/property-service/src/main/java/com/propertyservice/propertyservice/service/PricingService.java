@@ -0,0 +1,67 @@
+package com.propertyservice.propertyservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.propertyservice.propertyservice.entity.Property;
+import com.propertyservice.propertyservice.repository.AvailabilityRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Prix d'un séjour nuit par nuit : prix/nuit × priceMultiplier du calendrier.
+ *
+ * Total = prix × (nuits standard + Σ multiplicateurs spéciaux), calculé en une passe sur
+ * les seules nuits dont le multiplicateur diffère de 1. Sans nuit spéciale (cas courant),
+ * une seule multiplication. Les devis sont mis en cache, la clé inclut la date de mise à
+ * jour de la propriété pour qu'un changement de prix invalide les anciens devis.
+ */
+@Service
+public class PricingService {
+
+    private final AvailabilityRepository availabilityRepository;
+    private final Cache<QuoteKey, BigDecimal> quotes;
+
+    private record QuoteKey(Long propertyId, LocalDate startDate, LocalDate endDate, LocalDateTime version) {
+    }
+
+    public PricingService(AvailabilityRepository availabilityRepository,
+                          @Value("${app.pricing.quote-cache.max-size:10000}") long maxSize,
+                          @Value("${app.pricing.quote-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.availabilityRepository = availabilityRepository;
+        this.quotes = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * @param endDate date de départ (la nuit du endDate n'est pas facturée)
+     */
+    public BigDecimal quoteTotal(Property property, LocalDate startDate, LocalDate endDate) {
+        QuoteKey key = new QuoteKey(property.getId(), startDate, endDate, property.getUpdatedAt());
+        return quotes.get(key, k -> computeTotal(property, startDate, endDate));
+    }
+
+    private BigDecimal computeTotal(Property property, LocalDate startDate, LocalDate endDate) {
+        long nights = ChronoUnit.DAYS.between(startDate, endDate);
+        List<BigDecimal> multipliers = availabilityRepository.findSpecialPriceMultipliers(
+                property.getId(), startDate, endDate.minusDays(1));
+
+        if (multipliers.isEmpty()) {
+            return property.getPricePerNight().multiply(BigDecimal.valueOf(nights));
+        }
+
+        BigDecimal nightUnits = BigDecimal.valueOf(nights - multipliers.size());
+        for (BigDecimal multiplier : multipliers) {
+            nightUnits = nightUnits.add(multiplier);
+        }
+        return property.getPricePerNight().multiply(nightUnits);
+    }
+}
@@ -0,0 +1,61 @@
+package com.propertyservice.propertyservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verrous en mémoire par propriété, répartis sur un tableau fixe de stripes
+ * (aucune allocation par clé). Les mutations d'une même propriété sont sérialisées
+ * dans le réplica avant d'atteindre la base ; deux propriétés différentes ne se
+ * bloquent que si elles tombent sur la même stripe.
+ *
+ * Le verrou doit englober la transaction entière : l'appelant ouvre la transaction
+ * à l'intérieur de run(), jamais l'inverse.
+ */
+@Component
+public class PropertyLockManager {
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Counter[] contended = new Counter[STRIPES];
+    private final Timer waitTimer;
+
+    public PropertyLockManager(MeterRegistry meterRegistry) {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+            contended[i] = Counter.builder("availability.stripe.contended")
+                    .tag("stripe", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        this.waitTimer = Timer.builder("availability.stripe.wait").register(meterRegistry);
+    }
+
+    public void run(Long propertyId, Runnable action) {
+        int stripe = stripe(propertyId);
+        ReentrantLock lock = locks[stripe];
+
+        if (!lock.tryLock()) {
+            contended[stripe].increment();
+            long start = System.nanoTime();
+            lock.lock();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int stripe(Long propertyId) {
+        // Mélange des bits pour que des identifiants consécutifs tombent sur des stripes différentes
+        long h = propertyId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 58) & (STRIPES - 1);
+    }
+}
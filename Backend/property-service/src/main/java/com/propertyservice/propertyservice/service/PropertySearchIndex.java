@@ -0,0 +1,536 @@
+package com.propertyservice.propertyservice.service;
+
+import com.propertyservice.propertyservice.dto.SearchRequest;
+import com.propertyservice.propertyservice.entity.Property;
+import com.propertyservice.propertyservice.enu.ListingStatus;
+import com.propertyservice.propertyservice.repository.PropertyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoubleDocValuesField;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moteur de recherche embarqué (Lucene sur disque local) des annonces ACTIVE,
+ * alternative aux Specifications SQL quand app.search.lucene.enabled=true.
+ *
+ * Les écritures sont appliquées après commit ; les lecteurs voient les changements
+ * à la réouverture suivante (near-real-time, cf. refresh-interval-ms). Chaque réplica
+ * a son propre index : reconstruire avec rebuild() après une restauration de base.
+ * Pendant un rebuild, ni réouverture ni commit : lecteurs et disque gardent l'index précédent
+ * jusqu'à ce que le nouveau soit complet.
+ * Les questions que l'index ne sait pas traiter renvoient Optional.empty() et
+ * l'appelant retombe sur SQL.
+ */
+@Slf4j
+@Component
+public class PropertySearchIndex {
+
+    private static final String ID = "id";
+    private static final String TYPE = "type";
+    private static final String CITY = "city";
+    private static final String COUNTRY = "country";
+    private static final String PRICE = "price";
+    private static final String BEDROOMS = "bedrooms";
+    private static final String BATHROOMS = "bathrooms";
+    private static final String MAX_GUESTS = "maxGuests";
+    private static final String AMENITY = "amenity";
+    private static final String RATING = "rating";
+    private static final String INSTANT_BOOKABLE = "instantBookable";
+    private static final String CREATED_AT = "createdAt";
+    // Valeurs complètes en minuscules, pour la recherche par sous-chaîne de inLocation
+    private static final String LOCATION_TITLE = "location.title";
+    private static final String LOCATION_CITY = "location.city";
+    private static final String LOCATION_COUNTRY = "location.country";
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    // Version des champs indexés, en donnée de commit : un index d'une autre version est reconstruit
+    private static final String SCHEMA = "schema";
+    private static final String SCHEMA_VERSION = "2";
+
+    private final PropertyRepository propertyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer queryTimer;
+    private final boolean enabled;
+    private final Path indexPath;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+
+    private volatile boolean rebuilding;
+    // Propriétés écrites après commit pendant un rebuild : relues une fois les lots indexés
+    private final Set<Long> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    public PropertySearchIndex(PropertyRepository propertyRepository,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.search.lucene.enabled:false}") boolean enabled,
+                               @Value("${app.search.lucene.path:search-index}") String indexPath) {
+        this.propertyRepository = propertyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.queryTimer = Timer.builder("search.lucene.query").register(meterRegistry);
+        this.enabled = enabled;
+        this.indexPath = Path.of(indexPath);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        open();
+
+        // Index absent (premier démarrage, nouveau réplica) ou d'un autre format : on le construit depuis la base
+        if (writer.getDocStats().numDocs == 0 || !SCHEMA_VERSION.equals(commitData(SCHEMA))) {
+            rebuild();
+        }
+    }
+
+    // Writer et lecteurs sur le dernier commit présent sur disque
+    private void open() throws IOException {
+        writer = new IndexWriter(new MMapDirectory(indexPath), new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    /**
+     * Politique de réouverture : les lecteurs voient au plus refresh-interval-ms de retard.
+     */
+    @Scheduled(fixedDelayString = "${app.search.lucene.refresh-interval-ms:1000}")
+    public void refresh() {
+        if (searcherManager == null || rebuilding) {
+            return;
+        }
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Search index refresh failed: {}", e.getMessage());
+        }
+    }
+
+    // Point de reprise sur disque ; entre deux commits, les écritures ne vivent que dans le writer
+    @Scheduled(fixedDelayString = "${app.search.lucene.commit-interval-ms:60000}")
+    public void commit() {
+        if (writer == null || rebuilding) {
+            return;
+        }
+        try {
+            writer.commit();
+        } catch (IOException e) {
+            log.warn("Search index commit failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (writer != null) {
+            searcherManager.close();
+            if (rebuilding) {
+                // Index partiel : on revient au dernier commit complet
+                writer.rollback();
+            } else {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Reconstruit l'index depuis la base, par lots d'identifiants. Les lecteurs continuent
+     * de voir l'ancien index jusqu'au commit final ; les écritures faites entre-temps sont
+     * rejouées depuis la base avant publication.
+     */
+    public synchronized int rebuild() {
+        if (writer == null) {
+            return 0;
+        }
+        long started = System.nanoTime();
+        touchedDuringRebuild.clear();
+        rebuilding = true;
+        try {
+            writer.deleteAll();
+            long afterId = 0;
+            int indexed = 0;
+            List<Long> ids;
+            do {
+                ids = propertyRepository.findIdsByStatusAfter(
+                        ListingStatus.ACTIVE, afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                indexed += reindexFromDatabase(ids);
+                afterId = ids.get(ids.size() - 1);
+            } while (ids.size() == REBUILD_BATCH_SIZE);
+
+            // Un lot lu avant un commit concurrent a pu écraser une écriture plus récente :
+            // on relit ces propriétés jusqu'à ce qu'aucune nouvelle écriture n'arrive
+            while (!touchedDuringRebuild.isEmpty()) {
+                List<Long> touched = new ArrayList<>(touchedDuringRebuild);
+                touchedDuringRebuild.removeAll(touched);
+                reindexFromDatabase(touched);
+            }
+
+            writer.setLiveCommitData(Map.of(SCHEMA, SCHEMA_VERSION).entrySet());
+            writer.commit();
+            rebuilding = false;
+            searcherManager.maybeRefreshBlocking();
+            log.info("Search index rebuilt: {} properties in {} ms", indexed, (System.nanoTime() - started) / 1_000_000);
+            return indexed;
+        } catch (IOException | RuntimeException e) {
+            discardRebuild();
+            throw e instanceof IOException io ? new UncheckedIOException("Search index rebuild failed", io) : (RuntimeException) e;
+        } finally {
+            rebuilding = false;
+        }
+    }
+
+    // Rebuild interrompu : les documents partiels sont abandonnés, on rouvre le dernier index commité
+    private void discardRebuild() {
+        try {
+            searcherManager.close();
+            writer.rollback();
+            open();
+        } catch (IOException e) {
+            log.error("Search index could not be reopened after a failed rebuild: {}", e.getMessage());
+        }
+    }
+
+    // Remplace (ou retire) les documents des propriétés données par leur état en base
+    private int reindexFromDatabase(List<Long> ids) throws IOException {
+        Map<Long, Document> documents = transactionTemplate.execute(status -> {
+            Map<Long, Document> active = new HashMap<>();
+            for (Property property : propertyRepository.findAllById(ids)) {
+                if (property.getStatus() == ListingStatus.ACTIVE) {
+                    active.put(property.getId(), toDocument(property));
+                }
+            }
+            return active;
+        });
+        for (Long id : ids) {
+            Term term = new Term(ID, String.valueOf(id));
+            Document document = documents.get(id);
+            if (document != null) {
+                writer.updateDocument(term, document);
+            } else {
+                writer.deleteDocuments(term);
+            }
+        }
+        return documents.size();
+    }
+
+    private String commitData(String key) {
+        for (Map.Entry<String, String> entry : writer.getLiveCommitData()) {
+            if (entry.getKey().equals(key)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    // ========== Écritures (appliquées après commit) ==========
+
+    /**
+     * Indexe (ou retire, si elle n'est plus ACTIVE) une propriété. Le document est construit
+     * dans la transaction appelante, l'écriture Lucene n'a lieu qu'après commit.
+     */
+    public void index(Property property) {
+        if (writer == null) {
+            return;
+        }
+        Long propertyId = property.getId();
+        if (property.getStatus() != ListingStatus.ACTIVE) {
+            remove(propertyId);
+            return;
+        }
+        Document document = toDocument(property);
+        afterCommit(propertyId, () -> writer.updateDocument(new Term(ID, String.valueOf(propertyId)), document));
+    }
+
+    /**
+     * Recharge la propriété depuis la base avant de l'indexer (après une mise à jour en masse
+     * qui a vidé le contexte de persistance).
+     */
+    public void reindex(Long propertyId) {
+        if (writer == null) {
+            return;
+        }
+        propertyRepository.findById(propertyId).ifPresent(this::index);
+    }
+
+    public void remove(Long propertyId) {
+        if (writer == null) {
+            return;
+        }
+        afterCommit(propertyId, () -> writer.deleteDocuments(new Term(ID, String.valueOf(propertyId))));
+    }
+
+    private interface IndexWrite {
+        void run() throws IOException;
+    }
+
+    private void afterCommit(Long propertyId, IndexWrite write) {
+        Runnable action = () -> {
+            try {
+                write.run();
+                if (rebuilding) {
+                    touchedDuringRebuild.add(propertyId);
+                }
+            } catch (IOException | AlreadyClosedException e) {
+                // L'index peut dériver : le prochain rebuild le resynchronise
+                log.error("Search index update failed: {}", e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Document toDocument(Property property) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(property.getId()), Field.Store.YES));
+
+        String city = property.getAddress() != null ? property.getAddress().getCity() : null;
+        String country = property.getAddress() != null ? property.getAddress().getCountry() : null;
+        document.add(new StringField(LOCATION_TITLE, lower(property.getTitle()), Field.Store.NO));
+        document.add(new StringField(LOCATION_CITY, lower(city), Field.Store.NO));
+        document.add(new StringField(LOCATION_COUNTRY, lower(country), Field.Store.NO));
+
+        keyword(document, TYPE, property.getType().name());
+        keyword(document, CITY, normalize(city));
+        keyword(document, COUNTRY, normalize(country));
+
+        double price = property.getPricePerNight().doubleValue();
+        document.add(new DoublePoint(PRICE, price));
+        document.add(new DoubleDocValuesField(PRICE, price));
+
+        intField(document, BEDROOMS, property.getBedrooms());
+        intField(document, BATHROOMS, property.getBathrooms());
+        intField(document, MAX_GUESTS, property.getMaxGuests());
+
+        for (String amenity : property.getAmenities()) {
+            String value = normalize(amenity);
+            document.add(new StringField(AMENITY, value, Field.Store.NO));
+            document.add(new SortedSetDocValuesField(AMENITY, new BytesRef(value)));
+        }
+
+        double ratingValue = property.getAverageRating() != null ? property.getAverageRating() : 0;
+        document.add(new DoublePoint(RATING, ratingValue));
+        document.add(new DoubleDocValuesField(RATING, ratingValue));
+
+        keyword(document, INSTANT_BOOKABLE, String.valueOf(Boolean.TRUE.equals(property.getInstantBookable())));
+
+        long createdAt = property.getCreatedAt() != null ? property.getCreatedAt().toEpochSecond(ZoneOffset.UTC) : 0;
+        document.add(new NumericDocValuesField(CREATED_AT, createdAt));
+        document.add(new NumericDocValuesField(ID, property.getId()));
+        return document;
+    }
+
+    private static void keyword(Document document, String field, String value) {
+        document.add(new StringField(field, value, Field.Store.NO));
+        document.add(new SortedDocValuesField(field, new BytesRef(value)));
+    }
+
+    private static void intField(Document document, String field, Integer value) {
+        int v = value != null ? value : 0;
+        document.add(new IntPoint(field, v));
+        document.add(new NumericDocValuesField(field, v));
+    }
+
+    // ========== Lectures ==========
+
+    /**
+     * Identifiants des annonces correspondant aux filtres, dans l'ordre demandé.
+     *
+     * @param excludedIds annonces à écarter (nuits occupées, calculées par l'index de disponibilité)
+     * @return vide si l'index est désactivé ou si le tri demandé n'est pas supporté
+     */
+    public Optional<Page<Long>> search(SearchRequest request, Collection<Long> excludedIds, Pageable pageable) {
+        if (searcherManager == null) {
+            return Optional.empty();
+        }
+        Optional<Sort> sort = toSort(pageable.getSort());
+        if (sort.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Query query = toQuery(request, excludedIds);
+        return Optional.of(queryTimer.record(() -> {
+            try {
+                IndexSearcher searcher = searcherManager.acquire();
+                try {
+                    int total = searcher.count(query);
+                    int from = (int) pageable.getOffset();
+                    List<Long> ids = new ArrayList<>(pageable.getPageSize());
+                    if (from < total) {
+                        TopDocs top = searcher.search(query, from + pageable.getPageSize(), sort.get());
+                        ScoreDoc[] hits = top.scoreDocs;
+                        for (int i = from; i < hits.length; i++) {
+                            ids.add(Long.valueOf(searcher.storedFields().document(hits[i].doc).get(ID)));
+                        }
+                    }
+                    return new PageImpl<>(ids, pageable, total);
+                } finally {
+                    searcherManager.release(searcher);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Search index query failed", e);
+            }
+        }));
+    }
+
+    private Query toQuery(SearchRequest request, Collection<Long> excludedIds) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        query.add(new MatchAllDocsQuery(), BooleanClause.Occur.FILTER);
+
+        // Localisation : même règle que PropertySpecifications.inLocation, la saisie entière
+        // doit apparaître (sans casse) dans la ville, le pays ou le titre
+        if (request.getLocation() != null && !request.getLocation().isBlank()) {
+            String pattern = "*" + escapeWildcards(request.getLocation().toLowerCase(Locale.ROOT)) + "*";
+            BooleanQuery.Builder location = new BooleanQuery.Builder();
+            for (String field : List.of(LOCATION_CITY, LOCATION_COUNTRY, LOCATION_TITLE)) {
+                location.add(new WildcardQuery(new Term(field, pattern)), BooleanClause.Occur.SHOULD);
+            }
+            query.add(location.build(), BooleanClause.Occur.FILTER);
+        }
+        if (request.getPropertyType() != null) {
+            query.add(new TermQuery(new Term(TYPE, request.getPropertyType().name())), BooleanClause.Occur.FILTER);
+        }
+        if (request.getGuests() != null && request.getGuests() > 0) {
+            query.add(IntPoint.newRangeQuery(MAX_GUESTS, request.getGuests(), Integer.MAX_VALUE), BooleanClause.Occur.FILTER);
+        }
+        if (request.getBedrooms() != null && request.getBedrooms() > 0) {
+            query.add(IntPoint.newRangeQuery(BEDROOMS, request.getBedrooms(), Integer.MAX_VALUE), BooleanClause.Occur.FILTER);
+        }
+        if (request.getBathrooms() != null && request.getBathrooms() > 0) {
+            query.add(IntPoint.newRangeQuery(BATHROOMS, request.getBathrooms(), Integer.MAX_VALUE), BooleanClause.Occur.FILTER);
+        }
+        double minPrice = positive(request.getMinPrice()) ? request.getMinPrice().doubleValue() : Double.NEGATIVE_INFINITY;
+        double maxPrice = positive(request.getMaxPrice()) ? request.getMaxPrice().doubleValue() : Double.POSITIVE_INFINITY;
+        if (minPrice != Double.NEGATIVE_INFINITY || maxPrice != Double.POSITIVE_INFINITY) {
+            query.add(DoublePoint.newRangeQuery(PRICE, minPrice, maxPrice), BooleanClause.Occur.FILTER);
+        }
+        if (request.getMinRating() != null && request.getMinRating() >= 1 && request.getMinRating() <= 5) {
+            query.add(DoublePoint.newRangeQuery(RATING, request.getMinRating(), Double.POSITIVE_INFINITY), BooleanClause.Occur.FILTER);
+        }
+        if (request.getInstantBookable() != null) {
+            query.add(new TermQuery(new Term(INSTANT_BOOKABLE, String.valueOf(request.getInstantBookable()))),
+                    BooleanClause.Occur.FILTER);
+        }
+        if (!excludedIds.isEmpty()) {
+            // Une seule clause quel que soit le nombre d'identifiants (pas de limite maxClauseCount)
+            List<BytesRef> terms = excludedIds.stream().map(id -> new BytesRef(String.valueOf(id))).toList();
+            query.add(new TermInSetQuery(ID, terms), BooleanClause.Occur.MUST_NOT);
+        }
+        return query.build();
+    }
+
+    private static Optional<Sort> toSort(org.springframework.data.domain.Sort sort) {
+        List<SortField> fields = new ArrayList<>();
+        for (org.springframework.data.domain.Sort.Order order : sort) {
+            boolean reverse = order.isDescending();
+            switch (order.getProperty()) {
+                case "createdAt" -> fields.add(new SortField(CREATED_AT, SortField.Type.LONG, reverse));
+                case "pricePerNight" -> fields.add(new SortField(PRICE, SortField.Type.DOUBLE, reverse));
+                case "id" -> fields.add(new SortField(ID, SortField.Type.LONG, reverse));
+                default -> {
+                    return Optional.empty();
+                }
+            }
+        }
+        // Départage stable pour une pagination déterministe
+        fields.add(new SortField(ID, SortField.Type.LONG, true));
+        return Optional.of(new Sort(fields.toArray(new SortField[0])));
+    }
+
+    private static String escapeWildcards(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == WildcardQuery.WILDCARD_STRING || c == WildcardQuery.WILDCARD_CHAR || c == WildcardQuery.WILDCARD_ESCAPE) {
+                escaped.append(WildcardQuery.WILDCARD_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private static boolean positive(BigDecimal value) {
+        return value != null && value.compareTo(BigDecimal.ZERO) > 0;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Comme lower() côté SQL : sans trim, pour que les sous-chaînes correspondent à l'identique
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+}
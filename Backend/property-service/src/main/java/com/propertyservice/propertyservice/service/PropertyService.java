@@ -3,16 +3,22 @@ package com.propertyservice.propertyservice.service;
 import com.propertyservice.propertyservice.dto.CreatePropertyRequest;
 import com.propertyservice.propertyservice.dto.PropertyImageResponse;
 import com.propertyservice.propertyservice.dto.PropertyResponse;
+import com.propertyservice.propertyservice.dto.ScrollCursor;
+import com.propertyservice.propertyservice.dto.ScrollResponse;
 import com.propertyservice.propertyservice.dto.UserProfileDTO;
 import com.propertyservice.propertyservice.client.UserProfileClient;
 import com.propertyservice.propertyservice.entity.Property;
 import com.propertyservice.propertyservice.enu.ListingStatus;
 import com.propertyservice.propertyservice.exception.PropertyNotFoundException;
 import com.propertyservice.propertyservice.repository.PropertyRepository;
+import com.propertyservice.propertyservice.specification.PropertySpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,9 +32,11 @@ import java.util.List;
 public class PropertyService {
     private final PropertyRepository propertyRepository;
     private final PropertyImageService propertyImageService;
-    private final ReviewService reviewService;
     private final UserProfileClient userProfileClient;
     private final AIService aiService;
+    private final PropertySearchIndex propertySearchIndex;
+    private final SearchResultCache searchResultCache;
+    private final SuggestionIndex suggestionIndex;
 
     @Transactional
     public PropertyResponse createProperty(CreatePropertyRequest request, Long ownerId, String ownerWalletAddress, List<String> roles) {
@@ -73,6 +81,7 @@ public class PropertyService {
                 .build();
 
         Property savedProperty = propertyRepository.save(property);
+        propertySearchIndex.index(savedProperty);
         log.info("Property created with ID: {}", savedProperty.getId());
 
         return mapToPropertyResponse(savedProperty);
@@ -124,8 +133,34 @@ public class PropertyService {
     public Page<PropertyResponse> getAvailableProperties(Pageable pageable) {
         Page<Property> properties = propertyRepository.findByStatus(ListingStatus.ACTIVE, pageable);
         
-        // Batch fetch unique owner profiles
-        List<Long> ownerIds = properties.getContent().stream()
+        java.util.Map<Long, UserProfileDTO> ownerProfiles = fetchOwnerProfiles(properties.getContent());
+        return properties.map(p -> this.mapToPropertyResponse(p, ownerProfiles.get(p.getOwnerId())));
+    }
+
+    // Mode Slice : page suivante détectée par une ligne de plus, sans COUNT(*)
+    public Slice<PropertyResponse> getAvailablePropertiesSlice(Pageable pageable) {
+        Slice<Property> properties = propertyRepository.findBy(
+                PropertySpecifications.isAvailable(), query -> query.slice(pageable));
+
+        java.util.Map<Long, UserProfileDTO> ownerProfiles = fetchOwnerProfiles(properties.getContent());
+        return properties.map(p -> this.mapToPropertyResponse(p, ownerProfiles.get(p.getOwnerId())));
+    }
+
+    // Parcours par curseur (keyset) : coût constant quelle que soit la profondeur
+    public ScrollResponse<PropertyResponse> scrollAvailableProperties(Sort sort, String cursor, int size) {
+        Window<Property> window = propertyRepository.findBy(PropertySpecifications.isAvailable(),
+                query -> query.sortBy(sort).limit(size).scroll(ScrollCursor.decode(cursor, sort)));
+
+        java.util.Map<Long, UserProfileDTO> ownerProfiles = fetchOwnerProfiles(window.getContent());
+        List<PropertyResponse> content = window.getContent().stream()
+                .map(p -> this.mapToPropertyResponse(p, ownerProfiles.get(p.getOwnerId())))
+                .toList();
+        return ScrollResponse.of(content, window, sort);
+    }
+
+    // Batch fetch unique owner profiles
+    private java.util.Map<Long, UserProfileDTO> fetchOwnerProfiles(List<Property> properties) {
+        List<Long> ownerIds = properties.stream()
                 .map(Property::getOwnerId)
                 .distinct()
                 .toList();
@@ -139,8 +174,7 @@ public class PropertyService {
                 log.warn("Could not batch fetch owner profiles: {}", e.getMessage());
             }
         }
-
-        return properties.map(p -> this.mapToPropertyResponse(p, ownerProfiles.get(p.getOwnerId())));
+        return ownerProfiles;
     }
 
     @Transactional
@@ -153,6 +187,9 @@ public class PropertyService {
             throw new RuntimeException("Unauthorized to update this property");
         }
 
+        // L'annonce quitte les résultats (retour en validation) : pages de son ancien lieu et type
+        searchResultCache.evictListing(property);
+
         property.setTitle(request.getTitle());
         property.setDescription(request.getDescription());
         property.setType(request.getType());
@@ -173,6 +210,8 @@ public class PropertyService {
         property.setStatus(ListingStatus.PENDING_ADMIN);
 
         Property updatedProperty = propertyRepository.save(property);
+        propertySearchIndex.index(updatedProperty);
+        suggestionIndex.index(updatedProperty);
         log.info("Property {} updated and status reset to PENDING_ADMIN", id);
         return mapToPropertyResponse(updatedProperty);
     }
@@ -187,6 +226,9 @@ public class PropertyService {
         }
 
         propertyRepository.delete(property);
+        propertySearchIndex.remove(id);
+        suggestionIndex.remove(id);
+        searchResultCache.evictListing(property);
         log.info("Property deleted with ID: {}", id);
     }
 
@@ -204,6 +246,9 @@ public class PropertyService {
         property.setStatus(ListingStatus.PENDING_ADMIN);
         
         propertyRepository.save(property);
+        propertySearchIndex.index(property);
+        suggestionIndex.index(property);
+        searchResultCache.evictListing(property);
         log.info("Ownership document updated for property {} and status reset to PENDING_ADMIN", id);
         return documentUrl;
     }
@@ -215,10 +260,6 @@ public class PropertyService {
     public PropertyResponse mapToPropertyResponse(Property property, UserProfileDTO ownerProfile) {
         List<PropertyImageResponse> imageResponses = propertyImageService.getPropertyImages(property.getId());
 
-        // Récupérer les stats des reviews
-        Double averageRating = reviewService.getPropertyAverageRating(property.getId());
-        Integer totalReviews = reviewService.getPropertyReviewCount(property.getId());
-
         // Si le profil n'est pas fourni, on essaie de le récupérer (fallback)
         if (ownerProfile == null && property.getOwnerId() != null) {
             try {
@@ -248,8 +289,8 @@ public class PropertyService {
                 .createdAt(property.getCreatedAt())
                 .updatedAt(property.getUpdatedAt())
                 .images(imageResponses)
-                .averageRating(averageRating)
-                .totalReviews(totalReviews)
+                .averageRating(property.getAverageRating())
+                .totalReviews(property.getRatingCount())
                 .minStayNights(property.getMinStayNights())
                 .cancellationPolicyDays(property.getCancellationPolicyDays())
                 .amenities(property.getAmenities())
@@ -23,6 +23,8 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final PropertyRepository propertyRepository;
     private final UserProfileClient userProfileClient;
+    private final PropertySearchIndex propertySearchIndex;
+    private final SearchResultCache searchResultCache;
 
     @Transactional
     public ReviewResponse createReview(Long propertyId, Integer rating, String comment, Long userId) {
@@ -47,6 +49,11 @@ public class ReviewService {
                 .build();
 
         Review savedReview = reviewRepository.save(review);
+        // Avant applyReviewDelta, qui vide le contexte de persistance
+        searchResultCache.evictRatings(property);
+        propertyRepository.applyReviewDelta(propertyId, rating, 1);
+        // La note moyenne fait partie du document indexé
+        propertySearchIndex.reindex(propertyId);
         log.info("Review created for property {} by user {}", propertyId, userId);
 
         return mapToReviewResponse(savedReview);
@@ -80,16 +87,21 @@ public class ReviewService {
             throw new RuntimeException("Unauthorized to delete this review");
         }
 
+        searchResultCache.evictRatings(review.getProperty());
         reviewRepository.delete(review);
+        propertyRepository.applyReviewDelta(review.getProperty().getId(), -review.getRating(), -1);
+        propertySearchIndex.reindex(review.getProperty().getId());
         log.info("Review deleted with ID: {} by user: {}", reviewId, userId);
     }
 
     @Transactional
     public void adminDeleteReview(Long reviewId) {
-        if (!reviewRepository.existsById(reviewId)) {
-            throw new RuntimeException("Review not found");
-        }
-        reviewRepository.deleteById(reviewId);
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new RuntimeException("Review not found"));
+        searchResultCache.evictRatings(review.getProperty());
+        reviewRepository.delete(review);
+        propertyRepository.applyReviewDelta(review.getProperty().getId(), -review.getRating(), -1);
+        propertySearchIndex.reindex(review.getProperty().getId());
         log.info("Admin deleted review {}", reviewId);
     }
 
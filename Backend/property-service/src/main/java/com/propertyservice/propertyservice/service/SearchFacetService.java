@@ -0,0 +1,99 @@
+package com.propertyservice.propertyservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.propertyservice.propertyservice.dto.SearchFacetsResponse;
+import com.propertyservice.propertyservice.dto.SearchRequest;
+import com.propertyservice.propertyservice.entity.Property;
+import com.propertyservice.propertyservice.enu.PropertyType;
+import com.propertyservice.propertyservice.repository.PropertyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Facettes de la recherche (types, histogramme de prix, chambres, équipements) pour
+ * un jeu de filtres, sur la même Specification que SearchService.
+ *
+ * Types, prix et chambres sortent d'un seul GROUP BY, agrégé ensuite en mémoire ;
+ * les équipements (collection) d'un second. Le résultat est mis en cache quelques
+ * secondes, la clé étant le filtre normalisé.
+ */
+@Service
+public class SearchFacetService {
+
+    private final PropertyRepository propertyRepository;
+    private final SearchService searchService;
+    private final BigDecimal priceBucketWidth;
+    private final Cache<SearchRequest, SearchFacetsResponse> facets;
+
+    public SearchFacetService(PropertyRepository propertyRepository,
+                              SearchService searchService,
+                              @Value("${app.search.facets.price-bucket-width:0.05}") BigDecimal priceBucketWidth,
+                              @Value("${app.search.facets.cache-max-size:1000}") long maxSize,
+                              @Value("${app.search.facets.cache-ttl-seconds:30}") long ttlSeconds) {
+        this.propertyRepository = propertyRepository;
+        this.searchService = searchService;
+        this.priceBucketWidth = priceBucketWidth;
+        this.facets = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public SearchFacetsResponse getFacets(SearchRequest request) {
+        SearchRequest key = request.normalized();
+        return facets.get(key, this::computeFacets);
+    }
+
+    private SearchFacetsResponse computeFacets(SearchRequest request) {
+        Specification<Property> spec = searchService.buildSqlSpecification(request);
+
+        long total = 0;
+        Map<String, Long> types = new LinkedHashMap<>();
+        Map<Long, Long> priceBuckets = new TreeMap<>();
+        Map<Integer, Long> bedrooms = new TreeMap<>();
+
+        for (Object[] row : propertyRepository.countByTypePriceBucketAndBedrooms(spec, priceBucketWidth)) {
+            String type = ((PropertyType) row[0]).name();
+            long bucket = ((Number) row[1]).longValue();
+            Integer bedroomCount = (Integer) row[2];
+            long count = (Long) row[3];
+
+            total += count;
+            types.merge(type, count, Long::sum);
+            priceBuckets.merge(bucket, count, Long::sum);
+            bedrooms.merge(bedroomCount, count, Long::sum);
+        }
+
+        List<SearchFacetsResponse.PriceBucket> histogram = new ArrayList<>(priceBuckets.size());
+        priceBuckets.forEach((bucket, count) -> histogram.add(SearchFacetsResponse.PriceBucket.builder()
+                .minPrice(priceBucketWidth.multiply(BigDecimal.valueOf(bucket)))
+                .maxPrice(priceBucketWidth.multiply(BigDecimal.valueOf(bucket + 1)))
+                .count(count)
+                .build()));
+
+        Map<String, Long> amenities = new TreeMap<>();
+        for (Object[] row : propertyRepository.countByAmenity(spec)) {
+            amenities.put((String) row[0], (Long) row[1]);
+        }
+
+        return SearchFacetsResponse.builder()
+                .totalProperties(total)
+                .propertyTypes(types)
+                .priceHistogram(histogram)
+                .bedrooms(bedrooms)
+                .amenities(amenities)
+                .build();
+    }
+}
@@ -0,0 +1,296 @@
+package com.propertyservice.propertyservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.propertyservice.propertyservice.dto.SearchRequest;
+import com.propertyservice.propertyservice.entity.Address;
+import com.propertyservice.propertyservice.entity.Property;
+import com.propertyservice.propertyservice.enu.PropertyType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cache des pages de recherche : la clé est le filtre normalisé plus la pagination,
+ * la valeur la liste ordonnée des identifiants et le total. Les DTO sont reconstruits
+ * à chaque lecture, un avis ou une photo modifiés sont donc visibles sans invalidation.
+ *
+ * L'invalidation est sélective et appliquée après commit : une annonce modifiée n'évince
+ * que les pages dont le lieu et le type peuvent la contenir, un changement de calendrier
+ * que les recherches datées qui recouvrent les nuits concernées. Des index secondaires
+ * (lieu saisi, nuits demandées) évitent de parcourir tout le cache à chaque réservation.
+ * Le TTL borne la fraîcheur des changements faits par un autre réplica.
+ */
+@Component
+public class SearchResultCache {
+
+    // Au-delà, un séjour n'est pas indexé nuit par nuit mais testé à chaque changement de calendrier
+    private static final int MAX_INDEXED_NIGHTS = 31;
+
+    public record Key(SearchRequest request, int page, int size, Sort sort) {
+    }
+
+    public record Entry(List<Long> ids, long total) {
+    }
+
+    private final Cache<Key, Entry> results;
+    private final boolean enabled;
+
+    // Index des clés présentes, tenus à jour dans les opérations atomiques du cache (compute, éviction)
+    private final Map<String, Set<Key>> keysByLocation = new ConcurrentHashMap<>();
+    private final Map<LocalDate, Set<Key>> keysByNight = new ConcurrentHashMap<>();
+    private final Set<Key> datedKeys = ConcurrentHashMap.newKeySet();
+    private final Set<Key> longStayKeys = ConcurrentHashMap.newKeySet();
+
+    public SearchResultCache(MeterRegistry meterRegistry,
+                             @Value("${app.search.result-cache.enabled:true}") boolean enabled,
+                             @Value("${app.search.result-cache.max-size:5000}") long maxSize,
+                             @Value("${app.search.result-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .evictionListener((Key key, Entry entry, RemovalCause cause) -> {
+                    if (key != null) {
+                        unindex(key);
+                    }
+                })
+                .recordStats()
+                .build();
+        // search.results : cache.gets{result=hit|miss}, cache.evictions, cache.size...
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "search.results");
+        Gauge.builder("search.results.cache.hit.ratio", results, cache -> cache.stats().hitRate())
+                .register(meterRegistry);
+    }
+
+    public static Key key(SearchRequest request, Pageable pageable) {
+        return new Key(request.normalized(), pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+    }
+
+    public Optional<Entry> get(Key key) {
+        return enabled ? Optional.ofNullable(results.getIfPresent(key)) : Optional.empty();
+    }
+
+    public void put(Key key, List<Long> ids, long total) {
+        if (enabled) {
+            Entry entry = new Entry(List.copyOf(ids), total);
+            results.asMap().compute(key, (k, previous) -> {
+                index(k);
+                return entry;
+            });
+        }
+    }
+
+    // ========== Invalidation (appliquée après commit) ==========
+
+    /**
+     * Statut, lieu, type, prix ou capacité modifiés : à appeler avec l'état avant et
+     * après modification quand le lieu ou le type peuvent changer.
+     */
+    public void evictListing(Property property) {
+        Listing listing = Listing.of(property);
+        evictAfterCommit(() -> listingKeys(listing, key -> true));
+    }
+
+    /**
+     * Note moyenne modifiée : les recherches filtrées par note minimum ou triées par note.
+     */
+    public void evictRatings(Property property) {
+        Listing listing = Listing.of(property);
+        evictAfterCommit(() -> listingKeys(listing, key -> key.request().getMinRating() != null
+                || key.sort().getOrderFor("averageRating") != null));
+    }
+
+    public void evictDates(LocalDate startDate, LocalDate endDate) {
+        evictAfterCommit(() -> {
+            Set<Key> keys = new HashSet<>();
+            for (LocalDate night = startDate; !night.isAfter(endDate); night = night.plusDays(1)) {
+                Set<Key> nightKeys = keysByNight.get(night);
+                if (nightKeys != null) {
+                    keys.addAll(nightKeys);
+                }
+            }
+            for (Key key : longStayKeys) {
+                if (overlaps(key.request(), startDate, endDate)) {
+                    keys.add(key);
+                }
+            }
+            return keys;
+        });
+    }
+
+    public void evictDates(Collection<LocalDate> dates) {
+        if (dates.isEmpty()) {
+            return;
+        }
+        LocalDate first = dates.stream().min(LocalDate::compareTo).orElseThrow();
+        LocalDate last = dates.stream().max(LocalDate::compareTo).orElseThrow();
+        evictDates(first, last);
+    }
+
+    /**
+     * Nuits libérées inconnues de l'appelant (libération par jeton) : toutes les recherches datées.
+     */
+    public void evictDated() {
+        evictAfterCommit(() -> new HashSet<>(datedKeys));
+    }
+
+    public void evictAll() {
+        if (enabled) {
+            results.asMap().keySet().forEach(this::remove);
+        }
+    }
+
+    // Champs de l'annonce capturés dans la transaction : l'entité peut être détachée au commit
+    private record Listing(PropertyType type, String city, String country, String title) {
+
+        static Listing of(Property property) {
+            Address address = property.getAddress();
+            return new Listing(property.getType(),
+                    lower(address != null ? address.getCity() : null),
+                    lower(address != null ? address.getCountry() : null),
+                    lower(property.getTitle()));
+        }
+
+        // Même règle que PropertySpecifications.inLocation ; "" (pas de lieu) correspond à tout
+        boolean matchesLocation(String location) {
+            return city.contains(location) || country.contains(location) || title.contains(location);
+        }
+
+        boolean matchesType(SearchRequest request) {
+            return request.getPropertyType() == null || request.getPropertyType() == type;
+        }
+    }
+
+    // Un test par lieu distinct saisi, puis seulement les clés de ces lieux
+    private Set<Key> listingKeys(Listing listing, Predicate<Key> filter) {
+        Set<Key> keys = new HashSet<>();
+        keysByLocation.forEach((location, locationKeys) -> {
+            if (listing.matchesLocation(location)) {
+                for (Key key : locationKeys) {
+                    if (listing.matchesType(key.request()) && filter.test(key)) {
+                        keys.add(key);
+                    }
+                }
+            }
+        });
+        return keys;
+    }
+
+    // Le séjour occupe les nuits de checkIn à la veille de checkOut
+    private static boolean overlaps(SearchRequest request, LocalDate startDate, LocalDate endDate) {
+        return request.getCheckIn().isBefore(endDate.plusDays(1)) && request.getCheckOut().isAfter(startDate);
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static String location(SearchRequest request) {
+        return request.getLocation() == null ? "" : request.getLocation();
+    }
+
+    // ========== Index secondaires ==========
+
+    private void index(Key key) {
+        SearchRequest request = key.request();
+        addTo(keysByLocation, location(request), key);
+        if (!request.hasDates()) {
+            return;
+        }
+        datedKeys.add(key);
+        if (nightCount(request) > MAX_INDEXED_NIGHTS) {
+            longStayKeys.add(key);
+            return;
+        }
+        for (LocalDate night : nights(request)) {
+            addTo(keysByNight, night, key);
+        }
+    }
+
+    private void unindex(Key key) {
+        SearchRequest request = key.request();
+        removeFrom(keysByLocation, location(request), key);
+        if (!request.hasDates()) {
+            return;
+        }
+        datedKeys.remove(key);
+        if (nightCount(request) > MAX_INDEXED_NIGHTS) {
+            longStayKeys.remove(key);
+            return;
+        }
+        for (LocalDate night : nights(request)) {
+            removeFrom(keysByNight, night, key);
+        }
+    }
+
+    // Ajout et retrait dans compute : un ensemble vidé puis retiré ne peut pas recevoir une clé orpheline
+    private static <K> void addTo(Map<K, Set<Key>> index, K indexKey, Key key) {
+        index.compute(indexKey, (k, keys) -> {
+            Set<Key> updated = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            updated.add(key);
+            return updated;
+        });
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Key>> index, K indexKey, Key key) {
+        index.computeIfPresent(indexKey, (k, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static long nightCount(SearchRequest request) {
+        return Math.max(1, ChronoUnit.DAYS.between(request.getCheckIn(), request.getCheckOut()));
+    }
+
+    private static List<LocalDate> nights(SearchRequest request) {
+        return request.getCheckIn().datesUntil(request.getCheckIn().plusDays(nightCount(request))).toList();
+    }
+
+    // Retrait atomique de l'entrée et de ses index
+    private void remove(Key key) {
+        results.asMap().computeIfPresent(key, (k, entry) -> {
+            unindex(k);
+            return null;
+        });
+    }
+
+    private void evictAfterCommit(Supplier<Set<Key>> matchingKeys) {
+        if (!enabled) {
+            return;
+        }
+        Runnable eviction = () -> matchingKeys.get().forEach(this::remove);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+}
@@ -8,13 +8,28 @@ import com.propertyservice.propertyservice.specification.PropertySpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -23,18 +38,63 @@ public class SearchService {
 
     private final PropertyRepository propertyRepository;
     private final PropertyService propertyService;
+    private final AvailabilityIndex availabilityIndex;
+    private final PropertySearchIndex propertySearchIndex;
+    private final SearchResultCache searchResultCache;
 
+    /**
+     * Les pages déjà calculées sont servies depuis SearchResultCache (identifiants seuls,
+     * les annonces sont rechargées) ; sinon recherche complète puis mise en cache.
+     */
     @Transactional(readOnly = true)
     public SearchResponse searchProperties(SearchRequest request, Pageable pageable) {
         log.info("🔍 Searching properties with filters: {}", request);
 
-        // 1. Construire la specification avec tous les filtres
+        SearchResultCache.Key key = SearchResultCache.key(request, pageable);
+        Optional<SearchResultCache.Entry> cached = searchResultCache.get(key);
+        if (cached.isPresent()) {
+            return responseForIds(cached.get().ids(), pageable, cached.get().total());
+        }
+
+        SearchResponse response = executeSearch(request, pageable);
+        searchResultCache.put(key,
+                response.getProperties().getContent().stream().map(PropertyResponse::getId).toList(),
+                response.getTotalProperties());
+        return response;
+    }
+
+    private SearchResponse executeSearch(SearchRequest request, Pageable pageable) {
+        if (propertySearchIndex.isEnabled()) {
+            Optional<SearchResponse> indexed = searchWithIndex(request, pageable);
+            if (indexed.isPresent()) {
+                return indexed.get();
+            }
+        }
+
+        // 1. Construire la specification avec les filtres d'attributs
         Specification<Property> spec = buildSpecification(request);
 
-        // 2. Exécuter la recherche
+        if (sortsByDistance(pageable)) {
+            spec = spec.and(distanceOrder(request));
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        }
+
+        // 2. Dates disponibles : candidats filtrés par l'index de disponibilité en un seul passage,
+        // sinon anti-jointure SQL sur availability_calendar
+        if (request.hasDates()) {
+            // Nuits occupées : de checkIn à la veille de checkOut
+            Optional<LongPredicate> free = availabilityIndex
+                    .freeBetween(request.getCheckIn(), request.getCheckOut().minusDays(1));
+            if (free.isPresent()) {
+                return searchFreeCandidates(spec, free.get(), pageable);
+            }
+            spec = spec.and(PropertySpecifications.availableBetween(request.getCheckIn(), request.getCheckOut()));
+        }
+
+        // 3. Exécuter la recherche
         Page<Property> propertiesPage = propertyRepository.findAll(spec, pageable);
 
-        // 3. Convertir en PropertyResponse
+        // 4. Convertir en PropertyResponse
         Page<PropertyResponse> propertyResponses = propertiesPage
                 .map(propertyService::mapToPropertyResponse);
 
@@ -46,6 +106,143 @@ public class SearchService {
                 .build();
     }
 
+    /**
+     * Mode Slice : même filtrage SQL, sans requête COUNT(*).
+     */
+    @Transactional(readOnly = true)
+    public Slice<PropertyResponse> searchPropertiesSlice(SearchRequest request, Pageable pageable) {
+        Specification<Property> spec = buildSqlSpecification(request);
+        Pageable slicePageable = pageable;
+        if (sortsByDistance(pageable)) {
+            spec = spec.and(distanceOrder(request));
+            slicePageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        }
+
+        Pageable page = slicePageable;
+        return propertyRepository.findBy(spec, query -> query.slice(page))
+                .map(propertyService::mapToPropertyResponse);
+    }
+
+    // Le tri par distance est une expression SQL portée par la Specification, pas une propriété de l'entité
+    private static boolean sortsByDistance(Pageable pageable) {
+        return pageable.getSort().getOrderFor("distance") != null;
+    }
+
+    private static Specification<Property> distanceOrder(SearchRequest request) {
+        if (!request.hasGeoCenter()) {
+            throw new IllegalArgumentException("Sorting by distance requires latitude and longitude");
+        }
+        return PropertySpecifications.orderByDistance(request.getLatitude(), request.getLongitude());
+    }
+
+    /**
+     * Parcours par curseur (keyset sur clé de tri + id) pour le défilement infini :
+     * chaque page coûte le même prix, sans OFFSET ni COUNT(*).
+     */
+    @Transactional(readOnly = true)
+    public ScrollResponse<PropertyResponse> scrollProperties(SearchRequest request, Sort sort, String cursor, int size) {
+        Window<Property> window = propertyRepository.findBy(buildSqlSpecification(request),
+                query -> query.sortBy(sort).limit(size).scroll(ScrollCursor.decode(cursor, sort)));
+        return ScrollResponse.of(window.getContent().stream().map(propertyService::mapToPropertyResponse).toList(),
+                window, sort);
+    }
+
+    // Tous les filtres en SQL, dates comprises (partagé avec SearchFacetService)
+    Specification<Property> buildSqlSpecification(SearchRequest request) {
+        Specification<Property> spec = buildSpecification(request);
+        if (request.hasDates()) {
+            spec = spec.and(PropertySpecifications.availableBetween(request.getCheckIn(), request.getCheckOut()));
+        }
+        return spec;
+    }
+
+    /**
+     * Recherche via l'index Lucene ; vide si une partie de la requête ne peut pas
+     * y être résolue (dates hors index de disponibilité, tri non supporté).
+     */
+    private Optional<SearchResponse> searchWithIndex(SearchRequest request, Pageable pageable) {
+        // Coordonnées non indexées dans Lucene
+        if (request.hasGeoCenter() || request.hasBoundingBox()) {
+            return Optional.empty();
+        }
+
+        Set<Long> excludedIds = Set.of();
+        if (request.hasDates()) {
+            Optional<Set<Long>> unavailable = availabilityIndex
+                    .getPropertiesUnavailableBetween(request.getCheckIn(), request.getCheckOut().minusDays(1));
+            if (unavailable.isEmpty()) {
+                return Optional.empty();
+            }
+            excludedIds = unavailable.get();
+        }
+
+        return propertySearchIndex.search(request, excludedIds, pageable)
+                .map(ids -> responseForIds(ids.getContent(), pageable, ids.getTotalElements()));
+    }
+
+    /**
+     * Parcourt les identifiants candidats (filtres d'attributs, dans l'ordre du tri) et ne garde
+     * que ceux libres sur la période : le coût suit le nombre de candidats, jamais la taille
+     * du calendrier, et seule la page demandée est chargée.
+     */
+    private SearchResponse searchFreeCandidates(Specification<Property> spec, LongPredicate free, Pageable pageable) {
+        long offset = pageable.getOffset();
+        long total = 0;
+        List<Long> pageIds = new ArrayList<>(pageable.getPageSize());
+
+        try (Stream<Long> candidates = propertyRepository.streamIds(spec, pageable.getSort())) {
+            Iterator<Long> iterator = candidates.iterator();
+            while (iterator.hasNext()) {
+                long id = iterator.next();
+                if (free.test(id)) {
+                    if (total >= offset && pageIds.size() < pageable.getPageSize()) {
+                        pageIds.add(id);
+                    }
+                    total++;
+                }
+            }
+        }
+
+        return responseForIds(pageIds, pageable, total);
+    }
+
+    private SearchResponse responseForIds(List<Long> ids, Pageable pageable, long total) {
+        // Une seule requête pour la page, puis remise dans l'ordre des identifiants
+        Map<Long, Property> properties = propertyRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Property::getId, Function.identity()));
+        List<PropertyResponse> content = ids.stream()
+                .map(properties::get)
+                .filter(Objects::nonNull)
+                .map(propertyService::mapToPropertyResponse)
+                .toList();
+        Page<PropertyResponse> page = new PageImpl<>(content, pageable, total);
+
+        return SearchResponse.builder()
+                .properties(page)
+                .totalProperties(page.getTotalElements())
+                .currentPage(page.getNumber())
+                .totalPages(page.getTotalPages())
+                .build();
+    }
+
+    /**
+     * Recherche libre : toute annonce dont le titre, la ville ou le pays contient la saisie
+     * (comme la recherche par lieu), plus celles dont ces champs contiennent tous les mots
+     * saisis ; les correspondances par mot entier sortent en tête.
+     */
+    @Transactional(readOnly = true)
+    public SearchResponse searchByText(String query, Pageable pageable) {
+        String pattern = "%" + query.toLowerCase() + "%";
+        Page<Property> ranked = propertyRepository.searchRanked(query.trim(), pattern, pageable);
+
+        return SearchResponse.builder()
+                .properties(ranked.map(propertyService::mapToPropertyResponse))
+                .totalProperties(ranked.getTotalElements())
+                .currentPage(ranked.getNumber())
+                .totalPages(ranked.getTotalPages())
+                .build();
+    }
+
     private Specification<Property> buildSpecification(SearchRequest request) {
         Specification<Property> spec = PropertySpecifications.isAvailable();
 
@@ -54,11 +251,7 @@ public class SearchService {
             spec = spec.and(PropertySpecifications.inLocation(request.getLocation()));
         }
 
-        // 2. Dates disponibles
-        if (request.hasDates()) {
-            spec = spec.and(PropertySpecifications.availableBetween(
-                    request.getCheckIn(), request.getCheckOut()));
-        }
+        // 2. Dates disponibles : appliquées par searchProperties
 
         // 3. Nombre de voyageurs
         if (request.getGuests() != null && request.getGuests() > 0) {
@@ -99,6 +292,16 @@ public class SearchService {
             spec = spec.and(PropertySpecifications.isInstantBookable(request.getInstantBookable()));
         }
 
+        // 10. Zone géographique (rayon et/ou rectangle de carte)
+        if (request.hasGeoCenter() && request.getRadiusKm() != null) {
+            spec = spec.and(PropertySpecifications.withinRadius(
+                    request.getLatitude(), request.getLongitude(), request.getRadiusKm()));
+        }
+        if (request.hasBoundingBox()) {
+            spec = spec.and(PropertySpecifications.withinBoundingBox(
+                    request.getSwLat(), request.getSwLng(), request.getNeLat(), request.getNeLng()));
+        }
+
         return spec;
     }
 }
@@ -0,0 +1,485 @@
+package com.propertyservice.propertyservice.service;
+
+import com.propertyservice.propertyservice.dto.SuggestionResponse;
+import com.propertyservice.propertyservice.entity.Address;
+import com.propertyservice.propertyservice.entity.Property;
+import com.propertyservice.propertyservice.enu.ListingStatus;
+import com.propertyservice.propertyservice.enu.SuggestionType;
+import com.propertyservice.propertyservice.repository.PropertyRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Autocomplétion : trie en mémoire des villes, pays et titres des annonces actives.
+ * Une ville ou un pays pèse le nombre d'annonces actives qui s'y trouvent, un titre 1.
+ *
+ * Chaque nœud connaît le poids maximal de son sous-arbre : les meilleures suggestions
+ * d'un préfixe sortent d'un parcours best-first qui s'arrête dès la limite atteinte,
+ * sans visiter tout le sous-arbre. Clés sans casse ni accents ("Orléans" = "orleans").
+ *
+ * Construit au démarrage, tenu à jour après commit (approbation, retour en validation,
+ * suppression) et reconstruit chaque nuit pour reprendre les écritures des autres réplicas.
+ * Les annonces écrites pendant une reconstruction sont relues en base et rejouées dans
+ * le nouvel état avant qu'il ne remplace l'ancien.
+ */
+@Slf4j
+@Component
+public class SuggestionIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final PropertyRepository propertyRepository;
+    private final boolean enabled;
+    private final int maxResults;
+    private final Timer lookupTimer;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Remplacé en bloc à la reconstruction, modifié sous le verrou d'écriture sinon
+    private State state = new State();
+
+    // Annonces écrites après commit pendant une reconstruction (sous le verrou d'écriture)
+    private boolean rebuilding;
+    private final Set<Long> touchedDuringRebuild = new HashSet<>();
+
+    private record Listing(String title, String city, String country) {
+    }
+
+    private static final class Entry {
+        private final SuggestionType type;
+        private final String text;
+        private final Long propertyId;
+        private long weight;
+
+        private Entry(SuggestionType type, String text, Long propertyId) {
+            this.type = type;
+            this.text = text;
+            this.propertyId = propertyId;
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // Enfants triés par caractère : recherche dichotomique, pas de HashMap par nœud
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private List<Entry> entries = List.of();
+        private long maxWeight;
+
+        private Node child(char label) {
+            int i = Arrays.binarySearch(labels, label);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private Node addChild(char label) {
+            int i = Arrays.binarySearch(labels, label);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            Node node = new Node();
+            labels = insert(labels, at, label);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = node;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+            return node;
+        }
+
+        private void removeChild(char label) {
+            int at = Arrays.binarySearch(labels, label);
+            if (at < 0) {
+                return;
+            }
+            char[] labelsLeft = new char[labels.length - 1];
+            Node[] childrenLeft = new Node[children.length - 1];
+            System.arraycopy(labels, 0, labelsLeft, 0, at);
+            System.arraycopy(labels, at + 1, labelsLeft, at, labels.length - at - 1);
+            System.arraycopy(children, 0, childrenLeft, 0, at);
+            System.arraycopy(children, at + 1, childrenLeft, at, children.length - at - 1);
+            labels = labelsLeft;
+            children = childrenLeft;
+        }
+
+        private boolean isEmpty() {
+            return entries.isEmpty() && children.length == 0;
+        }
+
+        private void recomputeMaxWeight() {
+            long max = 0;
+            for (Entry entry : entries) {
+                max = Math.max(max, entry.weight);
+            }
+            for (Node child : children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            maxWeight = max;
+        }
+
+        private static char[] insert(char[] array, int at, char value) {
+            char[] grown = new char[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, at);
+            grown[at] = value;
+            System.arraycopy(array, at, grown, at + 1, array.length - at);
+            return grown;
+        }
+    }
+
+    private static final class State {
+        private final Node root = new Node();
+        private final Map<Long, Listing> listings = new HashMap<>();
+        private final Map<Long, Entry> titles = new HashMap<>();
+        private final Map<String, Entry> cities = new HashMap<>();
+        private final Map<String, Entry> countries = new HashMap<>();
+
+        private void put(Long propertyId, Listing listing) {
+            remove(propertyId);
+            listings.put(propertyId, listing);
+
+            String titleKey = normalize(listing.title());
+            if (!titleKey.isEmpty()) {
+                Entry title = new Entry(SuggestionType.PROPERTY, listing.title().trim(), propertyId);
+                title.weight = 1;
+                titles.put(propertyId, title);
+                attach(titleKey, title);
+            }
+            addPlace(cities, SuggestionType.CITY, listing.city());
+            addPlace(countries, SuggestionType.COUNTRY, listing.country());
+        }
+
+        private void remove(Long propertyId) {
+            Listing listing = listings.remove(propertyId);
+            if (listing == null) {
+                return;
+            }
+            Entry title = titles.remove(propertyId);
+            if (title != null) {
+                detach(normalize(listing.title()), title);
+            }
+            removePlace(cities, listing.city());
+            removePlace(countries, listing.country());
+        }
+
+        private void addPlace(Map<String, Entry> places, SuggestionType type, String name) {
+            String key = normalize(name);
+            if (key.isEmpty()) {
+                return;
+            }
+            Entry place = places.get(key);
+            if (place == null) {
+                place = new Entry(type, name.trim(), null);
+                places.put(key, place);
+                place.weight = 1;
+                attach(key, place);
+            } else {
+                place.weight++;
+                reweigh(key);
+            }
+        }
+
+        private void removePlace(Map<String, Entry> places, String name) {
+            String key = normalize(name);
+            Entry place = places.get(key);
+            if (place == null) {
+                return;
+            }
+            if (--place.weight == 0) {
+                places.remove(key);
+                detach(key, place);
+            } else {
+                reweigh(key);
+            }
+        }
+
+        private void attach(String key, Entry entry) {
+            Node[] path = path(key, true);
+            Node leaf = path[key.length()];
+            List<Entry> entries = new ArrayList<>(leaf.entries);
+            entries.add(entry);
+            leaf.entries = entries;
+            update(key, path);
+        }
+
+        private void detach(String key, Entry entry) {
+            Node[] path = path(key, false);
+            if (path == null) {
+                return;
+            }
+            Node leaf = path[key.length()];
+            List<Entry> entries = new ArrayList<>(leaf.entries);
+            entries.remove(entry);
+            leaf.entries = entries.isEmpty() ? List.of() : entries;
+            update(key, path);
+        }
+
+        private void reweigh(String key) {
+            Node[] path = path(key, false);
+            if (path != null) {
+                update(key, path);
+            }
+        }
+
+        // path[i] est le nœud du préfixe de longueur i
+        private Node[] path(String key, boolean create) {
+            Node[] path = new Node[key.length() + 1];
+            path[0] = root;
+            for (int i = 0; i < key.length(); i++) {
+                Node next = create ? path[i].addChild(key.charAt(i)) : path[i].child(key.charAt(i));
+                if (next == null) {
+                    return null;
+                }
+                path[i + 1] = next;
+            }
+            return path;
+        }
+
+        // Remonte du nœud de la clé à la racine : poids maximal recalculé, branches vides élaguées
+        private static void update(String key, Node[] path) {
+            for (int i = key.length(); i >= 0; i--) {
+                Node node = path[i];
+                node.recomputeMaxWeight();
+                if (i > 0 && node.isEmpty()) {
+                    path[i - 1].removeChild(key.charAt(i - 1));
+                }
+            }
+        }
+
+        private int terms() {
+            return titles.size() + cities.size() + countries.size();
+        }
+    }
+
+    // Candidat du parcours best-first : un nœud (poids max du sous-arbre) ou une suggestion
+    private record Candidate(long weight, Node node, Entry entry) {
+    }
+
+    private static final Comparator<Candidate> BEST_FIRST = Comparator
+            .comparingLong(Candidate::weight).reversed()
+            // À poids égal, les suggestions avant les sous-arbres : on s'arrête plus tôt
+            .thenComparing(candidate -> candidate.entry() == null);
+
+    public SuggestionIndex(PropertyRepository propertyRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.search.suggest.enabled:true}") boolean enabled,
+                           @Value("${app.search.suggest.max-results:10}") int maxResults) {
+        this.propertyRepository = propertyRepository;
+        this.enabled = enabled;
+        this.maxResults = maxResults;
+        this.lookupTimer = Timer.builder("search.suggest.lookup").register(meterRegistry);
+        Gauge.builder("search.suggest.terms", this, index -> index.read(State::terms)).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(cron = "${app.search.suggest.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        write(current -> {
+            touchedDuringRebuild.clear();
+            rebuilding = true;
+        });
+        try {
+            State fresh = new State();
+            List<Object[]> rows = propertyRepository.findSuggestionFields(ListingStatus.ACTIVE);
+            for (Object[] row : rows) {
+                fresh.put((Long) row[0], listing(row));
+            }
+
+            // Les écritures faites depuis la lecture ne touchent que l'ancien état : on relit ces
+            // annonces, et on ne publie que lorsqu'aucune nouvelle écriture n'est arrivée entre-temps
+            while (true) {
+                List<Long> touched;
+                lock.writeLock().lock();
+                try {
+                    if (touchedDuringRebuild.isEmpty()) {
+                        state = fresh;
+                        break;
+                    }
+                    touched = new ArrayList<>(touchedDuringRebuild);
+                    touchedDuringRebuild.clear();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                replay(fresh, touched);
+            }
+            log.info("Suggestion index rebuilt: {} listings, {} terms", rows.size(), fresh.terms());
+        } finally {
+            write(current -> rebuilding = false);
+        }
+    }
+
+    // Remplace (ou retire) les annonces données par leur état en base
+    private void replay(State fresh, List<Long> propertyIds) {
+        Set<Long> missing = new HashSet<>(propertyIds);
+        for (Object[] row : propertyRepository.findSuggestionFieldsByIdIn(propertyIds, ListingStatus.ACTIVE)) {
+            Long propertyId = (Long) row[0];
+            fresh.put(propertyId, listing(row));
+            missing.remove(propertyId);
+        }
+        missing.forEach(fresh::remove);
+    }
+
+    private static Listing listing(Object[] row) {
+        return new Listing((String) row[1], (String) row[2], (String) row[3]);
+    }
+
+    // ========== Lecture ==========
+
+    public List<SuggestionResponse> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (!enabled || prefix.isEmpty()) {
+            return List.of();
+        }
+        int size = Math.max(1, Math.min(limit, maxResults));
+        return lookupTimer.record(() -> read(current -> topSuggestions(current, prefix, size)));
+    }
+
+    private static List<SuggestionResponse> topSuggestions(State current, String prefix, int limit) {
+        Node node = current.root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+
+        List<SuggestionResponse> suggestions = new ArrayList<>(limit);
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(BEST_FIRST);
+        queue.add(new Candidate(node.maxWeight, node, null));
+        while (!queue.isEmpty() && suggestions.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.entry() != null) {
+                Entry entry = candidate.entry();
+                suggestions.add(SuggestionResponse.builder()
+                        .text(entry.text)
+                        .type(entry.type)
+                        .propertyId(entry.propertyId)
+                        .listings(entry.weight)
+                        .build());
+                continue;
+            }
+            for (Entry entry : candidate.node().entries) {
+                queue.add(new Candidate(entry.weight, null, entry));
+            }
+            for (Node child : candidate.node().children) {
+                queue.add(new Candidate(child.maxWeight, child, null));
+            }
+        }
+        return suggestions;
+    }
+
+    private <T> T read(Function<State, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(state);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== Écritures (appliquées après commit) ==========
+
+    /**
+     * Ajoute ou met à jour l'annonce si elle est active, la retire sinon.
+     */
+    public void index(Property property) {
+        Long propertyId = property.getId();
+        if (property.getStatus() != ListingStatus.ACTIVE) {
+            remove(propertyId);
+            return;
+        }
+        Address address = property.getAddress();
+        Listing listing = new Listing(property.getTitle(),
+                address != null ? address.getCity() : null,
+                address != null ? address.getCountry() : null);
+        afterCommit(() -> write(current -> {
+            current.put(propertyId, listing);
+            touched(propertyId);
+        }));
+    }
+
+    public void remove(Long propertyId) {
+        afterCommit(() -> write(current -> {
+            current.remove(propertyId);
+            touched(propertyId);
+        }));
+    }
+
+    // Sous le verrou d'écriture : la reconstruction ne peut pas publier entre l'écriture et son relevé
+    private void touched(Long propertyId) {
+        if (rebuilding) {
+            touchedDuringRebuild.add(propertyId);
+        }
+    }
+
+    private void write(Consumer<State> writer) {
+        lock.writeLock().lock();
+        try {
+            writer.accept(state);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
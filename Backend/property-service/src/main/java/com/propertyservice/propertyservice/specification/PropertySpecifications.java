@@ -7,18 +7,33 @@ import com.propertyservice.propertyservice.enu.PropertyType;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 public class PropertySpecifications {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = 111.045;
+
     public static Specification<Property> isAvailable() {
         return (root, query, cb) ->
                 cb.equal(root.get("status"), ListingStatus.ACTIVE);
     }
 
+    // Statut quelconque (null = tous), pour les listes d'administration
+    public static Specification<Property> hasStatus(ListingStatus status) {
+        return (root, query, cb) -> {
+            if (status == null) return null;
+            return cb.equal(root.get("status"), status);
+        };
+    }
+
     // Ville
     public static Specification<Property> hasCity(String city) {
         return (root, query, cb) -> {
@@ -106,47 +121,113 @@ public class PropertySpecifications {
     }
 
     // Disponibilité entre dates (IMPORTANT !)
+    // Une nuit sans entrée dans le calendrier est disponible : on exclut les propriétés
+    // ayant au moins une nuit LOCKED/BOOKED entre checkIn et la veille de checkOut
     public static Specification<Property> availableBetween(LocalDate startDate, LocalDate endDate) {
         return (root, query, cb) -> {
             if (startDate == null || endDate == null) return null;
 
-            // Sous-requête pour vérifier disponibilités
             var subquery = query.subquery(Long.class);
             var availabilityRoot = subquery.from(com.propertyservice.propertyservice.entity.AvailabilityCalendar.class);
 
-            subquery.select(cb.count(availabilityRoot));
+            subquery.select(availabilityRoot.get("id"));
             subquery.where(
                     cb.and(
                             cb.equal(availabilityRoot.get("property").get("id"), root.get("id")),
-                            cb.equal(availabilityRoot.get("status"), AvailabilityStatus.AVAILABLE),
+                            availabilityRoot.get("status").in(AvailabilityStatus.UNAVAILABLE),
                             cb.between(availabilityRoot.get("date"), startDate, endDate.minusDays(1))
                     )
             );
 
-            // Doit avoir toutes les dates disponibles
-            long requiredDays = startDate.until(endDate).getDays();
-            return cb.equal(subquery, requiredDays);
+            return cb.not(cb.exists(subquery));
         };
     }
 
-    // Note minimum (complexe - besoin de join avec reviews)
+    // Note minimum (moyenne dénormalisée sur properties, null = aucune review)
     public static Specification<Property> hasMinRating(Double minRating) {
         return (root, query, cb) -> {
             if (minRating == null || minRating < 0 || minRating > 5) return null;
+            return cb.greaterThanOrEqualTo(root.get("averageRating"), minRating);
+        };
+    }
 
-            query.distinct(true); // Éviter les doublons
+    // Rectangle de carte ; un rectangle qui traverse l'antiméridien a swLng > neLng
+    public static Specification<Property> withinBoundingBox(Double swLat, Double swLng, Double neLat, Double neLng) {
+        return (root, query, cb) -> {
+            if (swLat == null || swLng == null || neLat == null || neLng == null) return null;
+
+            var address = root.get("address");
+            Predicate latitude = cb.between(address.get("latitude"), swLat, neLat);
+            Predicate longitude = swLng <= neLng
+                    ? cb.between(address.get("longitude"), swLng, neLng)
+                    : cb.or(cb.greaterThanOrEqualTo(address.get("longitude"), swLng),
+                            cb.lessThanOrEqualTo(address.get("longitude"), neLng));
+            return cb.and(latitude, longitude);
+        };
+    }
 
-            // Sous-requête pour la moyenne des reviews
-            var subquery = query.subquery(Double.class);
-            var reviewRoot = subquery.from(com.propertyservice.propertyservice.entity.Review.class);
+    // Rayon autour d'un point : pré-filtre rectangulaire (servi par l'index latitude, longitude)
+    // puis distance exacte (haversine)
+    public static Specification<Property> withinRadius(Double latitude, Double longitude, Double radiusKm) {
+        return (root, query, cb) -> {
+            if (latitude == null || longitude == null || radiusKm == null || radiusKm <= 0) return null;
+
+            double deltaLat = radiusKm / KM_PER_DEGREE;
+            double cosLat = Math.cos(Math.toRadians(latitude));
+            double deltaLng = cosLat < 1e-6 ? 180 : Math.min(180, radiusKm / (KM_PER_DEGREE * cosLat));
+
+            var address = root.get("address");
+            Expression<Double> lng = address.get("longitude");
+            double west = longitude - deltaLng;
+            double east = longitude + deltaLng;
+            // Un rayon qui traverse l'antiméridien couvre deux plages de longitude
+            Predicate longitudeRange;
+            if (deltaLng >= 180) {
+                longitudeRange = cb.conjunction();
+            } else if (west < -180) {
+                longitudeRange = cb.or(cb.between(lng, west + 360, 180.0), cb.between(lng, -180.0, east));
+            } else if (east > 180) {
+                longitudeRange = cb.or(cb.between(lng, west, 180.0), cb.between(lng, -180.0, east - 360));
+            } else {
+                longitudeRange = cb.between(lng, west, east);
+            }
+            Predicate box = cb.and(
+                    cb.between(address.get("latitude"), latitude - deltaLat, latitude + deltaLat),
+                    longitudeRange);
 
-            subquery.select(cb.avg(reviewRoot.get("rating")));
-            subquery.where(cb.equal(reviewRoot.get("property").get("id"), root.get("id")));
+            return cb.and(box, cb.le(distanceKm(root, cb, latitude, longitude), radiusKm));
+        };
+    }
 
-            return cb.greaterThanOrEqualTo(subquery, minRating);
+    // Tri par distance croissante (Spring Data retire les tris de la requête de comptage)
+    public static Specification<Property> orderByDistance(Double latitude, Double longitude) {
+        return (root, query, cb) -> {
+            if (latitude == null || longitude == null) return null;
+            query.orderBy(cb.asc(distanceKm(root, cb, latitude, longitude)));
+            return null;
         };
     }
 
+    private static Expression<Double> distanceKm(Root<Property> root, CriteriaBuilder cb, double latitude, double longitude) {
+        var address = root.get("address");
+        Expression<Double> lat = cb.function("radians", Double.class, address.get("latitude"));
+        Expression<Double> lng = cb.function("radians", Double.class, address.get("longitude"));
+
+        Expression<Double> sinHalfDeltaLat = cb.function("sin", Double.class,
+                cb.quot(cb.diff(lat, Math.toRadians(latitude)), 2.0));
+        Expression<Double> sinHalfDeltaLng = cb.function("sin", Double.class,
+                cb.quot(cb.diff(lng, Math.toRadians(longitude)), 2.0));
+
+        Expression<Double> a = cb.sum(
+                cb.prod(sinHalfDeltaLat, sinHalfDeltaLat),
+                cb.prod(cb.prod(cb.function("cos", Double.class, lat), Math.cos(Math.toRadians(latitude))),
+                        cb.prod(sinHalfDeltaLng, sinHalfDeltaLng)));
+
+        // Les arrondis peuvent pousser sqrt(a) au-dessus de 1 (points antipodaux) : asin le refuserait
+        Expression<Double> sqrtA = cb.function("least", Double.class, cb.literal(1.0), cb.sqrt(a));
+        return cb.prod(cb.function("asin", Double.class, sqrtA), 2 * EARTH_RADIUS_KM);
+    }
+
     public static Specification<Property> inLocation(String location) {
         return (root, query, cb) -> {
             if (location == null || location.isBlank()) return null;
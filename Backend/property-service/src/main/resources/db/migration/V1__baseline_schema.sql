@@ -0,0 +1,67 @@
+-- Schéma de l'arbre d'origine, tel que ddl-auto le créait. Une base existante est reprise
+-- en version 1 (baseline-version) : ce script ne s'exécute que sur une base vide, les
+-- changements ultérieurs passent par des migrations incrémentales (V2+).
+
+CREATE TABLE properties (
+    id                       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title                    VARCHAR(255)    NOT NULL,
+    description              TEXT,
+    type                     VARCHAR(255)    NOT NULL,
+    street                   VARCHAR(255),
+    city                     VARCHAR(255),
+    state                    VARCHAR(255),
+    zip_code                 VARCHAR(255),
+    country                  VARCHAR(255),
+    latitude                 FLOAT(53),
+    longitude                FLOAT(53),
+    price_per_night          NUMERIC(38, 18) NOT NULL,
+    security_deposit         NUMERIC(38, 18) NOT NULL,
+    max_guests               INTEGER         NOT NULL,
+    bedrooms                 INTEGER         NOT NULL,
+    bathrooms                INTEGER         NOT NULL,
+    owner_id                 BIGINT          NOT NULL,
+    owner_wallet_address     VARCHAR(255)    NOT NULL,
+    ownership_document_url   VARCHAR(255),
+    status                   VARCHAR(255)    NOT NULL,
+    min_stay_nights          INTEGER         NOT NULL,
+    cancellation_policy_days INTEGER         NOT NULL,
+    instant_bookable         BOOLEAN,
+    created_at               TIMESTAMP(6),
+    updated_at               TIMESTAMP(6)
+);
+
+CREATE TABLE property_amenities (
+    property_id BIGINT       NOT NULL REFERENCES properties (id),
+    amenity     VARCHAR(255)
+);
+
+CREATE TABLE property_images (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    image_url     VARCHAR(255) NOT NULL,
+    caption       VARCHAR(255),
+    display_order INTEGER      NOT NULL,
+    property_id   BIGINT       NOT NULL REFERENCES properties (id),
+    created_at    TIMESTAMP(6)
+);
+
+CREATE TABLE reviews (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    rating      INTEGER NOT NULL,
+    comment     TEXT,
+    user_id     BIGINT  NOT NULL,
+    property_id BIGINT  NOT NULL REFERENCES properties (id),
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6)
+);
+
+CREATE TABLE availability_calendar (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    property_id      BIGINT       NOT NULL REFERENCES properties (id),
+    date             DATE         NOT NULL,
+    status           VARCHAR(255) NOT NULL,
+    lock_token       VARCHAR(255),
+    lock_expires_at  TIMESTAMP(6),
+    tenant_id        BIGINT,
+    price_multiplier NUMERIC(5, 2),
+    CONSTRAINT uk_availability_calendar_property_id_date UNIQUE (property_id, date)
+);
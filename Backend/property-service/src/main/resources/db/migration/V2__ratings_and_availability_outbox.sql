@@ -0,0 +1,50 @@
+-- Colonnes, table et index ajoutés depuis le schéma d'origine. Incrémental et idempotent :
+-- une base reprise en version 1 peut déjà en porter une partie (ddl-auto update).
+
+-- Agrégats de notes dénormalisés (Property.ratingSum / ratingCount / averageRating),
+-- recalculés depuis reviews par V4
+ALTER TABLE properties ADD COLUMN IF NOT EXISTS rating_sum BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE properties ADD COLUMN IF NOT EXISTS rating_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE properties ADD COLUMN IF NOT EXISTS average_rating FLOAT(53);
+
+-- Outbox transactionnelle des événements AVAILABILITY_CHANGED (AvailabilityEventPublisher)
+CREATE TABLE IF NOT EXISTS availability_outbox (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    property_id BIGINT       NOT NULL,
+    start_date  DATE         NOT NULL,
+    end_date    DATE         NOT NULL,
+    status      VARCHAR(255) NOT NULL,
+    created_at  TIMESTAMP(6)
+);
+
+-- Cible des INSERT ... ON CONFLICT (property_id, date) d'AvailabilityRepository : la contrainte
+-- existe déjà sous un nom généré sur une base créée par ddl-auto, on ne l'ajoute qu'à défaut
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1
+        FROM pg_constraint c
+        WHERE c.conrelid = 'availability_calendar'::regclass
+          AND c.contype = 'u'
+          AND (SELECT array_agg(a.attname::text ORDER BY a.attname)
+               FROM pg_attribute a
+               WHERE a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)) = ARRAY['date', 'property_id']
+    ) THEN
+        ALTER TABLE availability_calendar
+            ADD CONSTRAINT uk_availability_calendar_property_id_date UNIQUE (property_id, date);
+    END IF;
+END
+$$;
+
+-- Index déclarés par @Table(indexes = ...) sur les entités
+CREATE INDEX IF NOT EXISTS idx_properties_status_average_rating
+    ON properties (status, average_rating);
+
+CREATE INDEX IF NOT EXISTS idx_properties_status_created_at_id
+    ON properties (status, created_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_properties_latitude_longitude
+    ON properties (latitude, longitude);
+
+CREATE INDEX IF NOT EXISTS idx_availability_property_lock_token
+    ON availability_calendar (property_id, lock_token);
@@ -0,0 +1,26 @@
+-- Index des finders les plus sollicités : ddl-auto ne crée aucun index sur les clés étrangères
+
+-- Balayage des verrous expirés (AvailabilityRepository.releaseExpiredLocks)
+CREATE INDEX IF NOT EXISTS idx_availability_lock_expires_at
+    ON availability_calendar (lock_expires_at)
+    WHERE lock_token IS NOT NULL;
+
+-- ReviewRepository.findByPropertyId / countByPropertyId
+CREATE INDEX IF NOT EXISTS idx_reviews_property_id
+    ON reviews (property_id);
+
+-- ReviewRepository.existsByUserIdAndPropertyId / findByUserId
+CREATE INDEX IF NOT EXISTS idx_reviews_user_id_property_id
+    ON reviews (user_id, property_id);
+
+-- PropertyImageRepository.findByPropertyIdOrderByDisplayOrderAsc : lecture déjà triée
+CREATE INDEX IF NOT EXISTS idx_property_images_property_id_display_order
+    ON property_images (property_id, display_order);
+
+-- Chargement des équipements et facette countByAmenity
+CREATE INDEX IF NOT EXISTS idx_property_amenities_property_id
+    ON property_amenities (property_id);
+
+-- PropertyRepository.findByOwnerId / countByOwnerId
+CREATE INDEX IF NOT EXISTS idx_properties_owner_id
+    ON properties (owner_id);
@@ -0,0 +1,34 @@
+-- Recherche plein texte (PropertyRepository.searchRanked) : vecteur pondéré titre > lieu > description,
+-- recalculé par Postgres à chaque écriture de la ligne
+ALTER TABLE properties ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple'::regconfig, coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple'::regconfig, coalesce(city, '') || ' ' || coalesce(country, '')), 'B') ||
+        setweight(to_tsvector('simple'::regconfig, coalesce(description, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_properties_search_vector
+    ON properties USING GIN (search_vector);
+
+-- Recherche par sous-chaîne (PropertySpecifications.inLocation) : LIKE '%x%' servi par des index trigrammes
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_properties_city_trgm
+    ON properties USING GIN (lower(city) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_properties_country_trgm
+    ON properties USING GIN (lower(country) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_properties_title_trgm
+    ON properties USING GIN (lower(title) gin_trgm_ops);
+
+-- Agrégats de notes dénormalisés (Property.ratingSum / ratingCount / averageRating) :
+-- rattrapage des lignes antérieures à ces colonnes ou désynchronisées
+UPDATE properties p
+SET rating_sum = r.rating_sum,
+    rating_count = r.rating_count,
+    average_rating = r.rating_sum * 1.0 / r.rating_count
+FROM (SELECT property_id, SUM(rating) AS rating_sum, COUNT(*) AS rating_count
+      FROM reviews GROUP BY property_id) r
+WHERE p.id = r.property_id
+  AND (p.rating_count <> r.rating_count OR p.rating_sum <> r.rating_sum);
@@ -0,0 +1,23 @@
+-- Version des événements AVAILABILITY_CHANGED, par propriété. Incrémentée par un upsert qui garde
+-- la ligne verrouillée jusqu'au commit : deux changements concurrents d'une même propriété
+-- obtiennent leurs versions dans l'ordre de leurs commits (l'id de l'outbox suit celui des INSERT)
+CREATE TABLE IF NOT EXISTS availability_versions (
+    property_id BIGINT PRIMARY KEY,
+    version     BIGINT NOT NULL
+);
+
+ALTER TABLE availability_outbox ADD COLUMN IF NOT EXISTS version BIGINT;
+
+-- Événements encore en attente : numérotés dans l'ordre des id, le compteur repart de là
+UPDATE availability_outbox o
+SET version = v.version
+FROM (SELECT id, ROW_NUMBER() OVER (PARTITION BY property_id ORDER BY id) AS version
+      FROM availability_outbox) v
+WHERE o.id = v.id
+  AND o.version IS NULL;
+
+INSERT INTO availability_versions (property_id, version)
+SELECT property_id, MAX(version) FROM availability_outbox GROUP BY property_id
+ON CONFLICT (property_id) DO NOTHING;
+
+ALTER TABLE availability_outbox ALTER COLUMN version SET NOT NULL;
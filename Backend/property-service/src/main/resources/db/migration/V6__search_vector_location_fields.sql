@@ -0,0 +1,15 @@
+-- /search/text remplace la recherche par sous-chaîne sur titre, ville et pays : la description
+-- (mots courants, « avec », « par »...) sortait des annonces sans rapport. Le vecteur se limite
+-- désormais à ces trois champs.
+DROP INDEX IF EXISTS idx_properties_search_vector;
+
+ALTER TABLE properties DROP COLUMN IF EXISTS search_vector;
+
+ALTER TABLE properties ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple'::regconfig, coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple'::regconfig, coalesce(city, '') || ' ' || coalesce(country, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_properties_search_vector
+    ON properties USING GIN (search_vector);
@@ -0,0 +1,8 @@
+-- Clé des parcours par curseur (ScrollCursor) : une valeur nulle ne peut être ni encodée ni
+-- comparée par la requête keyset. Toujours renseignée par @CreationTimestamp ; on rattrape les
+-- lignes antérieures avant d'imposer NOT NULL.
+UPDATE properties
+SET created_at = COALESCE(updated_at, now())
+WHERE created_at IS NULL;
+
+ALTER TABLE properties ALTER COLUMN created_at SET NOT NULL;
@@ -0,0 +1,3 @@
+-- Bail de publication : le relais réserve un lot (claimed_until) puis commite avant d'attendre
+-- les confirmations du broker. Une ligne dont le bail est échu redevient publiable.
+ALTER TABLE availability_outbox ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMP(6);
@@ -0,0 +1,31 @@
+package com.propertyservice.propertyservice;
+
+import com.propertyservice.propertyservice.entity.Address;
+import com.propertyservice.propertyservice.entity.Property;
+import com.propertyservice.propertyservice.enu.ListingStatus;
+import com.propertyservice.propertyservice.enu.PropertyType;
+
+import java.math.BigDecimal;
+
+/**
+ * Annonces ACTIVE minimales pour les tests d'intégration ; chaque test complète le builder.
+ */
+public final class TestProperties {
+
+    private TestProperties() {
+    }
+
+    public static Property.PropertyBuilder active(String title, String city, String country) {
+        return Property.builder()
+                .title(title)
+                .type(PropertyType.APARTMENT)
+                .address(new Address(null, city, null, null, country, null, null))
+                .pricePerNight(new BigDecimal("0.05"))
+                .maxGuests(2)
+                .bedrooms(1)
+                .bathrooms(1)
+                .ownerId(1L)
+                .ownerWalletAddress("0xowner")
+                .status(ListingStatus.ACTIVE);
+    }
+}
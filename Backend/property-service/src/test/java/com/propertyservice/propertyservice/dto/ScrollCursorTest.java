@@ -0,0 +1,56 @@
+package com.propertyservice.propertyservice.dto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScrollCursorTest {
+
+    private static final Sort SORT = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+
+    @Test
+    void roundTripsEverySupportedKey() {
+        Sort sort = Sort.by("pricePerNight", "createdAt", "id");
+        Map<String, Object> keys = Map.of(
+                "pricePerNight", new BigDecimal("0.050000000000000000"),
+                "createdAt", LocalDateTime.of(2026, 3, 1, 12, 30, 15),
+                "id", 42L);
+
+        ScrollPosition decoded = ScrollCursor.decode(ScrollCursor.encode(ScrollPosition.forward(keys), sort), sort);
+
+        assertThat(((KeysetScrollPosition) decoded).getKeys()).isEqualTo(keys);
+    }
+
+    @Test
+    void rejectsTamperedOrMismatchedCursors() {
+        String cursor = ScrollCursor.encode(ScrollPosition.forward(Map.of("id", 7L)), Sort.by("id"));
+
+        assertThatThrownBy(() -> ScrollCursor.decode("not-a-cursor", SORT)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ScrollCursor.decode(cursor, SORT)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void neverEncodesANullKey() {
+        Map<String, Object> keys = new HashMap<>();
+        keys.put("createdAt", null);
+        keys.put("id", 7L);
+
+        assertThatThrownBy(() -> ScrollCursor.encode(ScrollPosition.forward(keys), SORT))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void onlySupportsNonNullableColumns() {
+        assertThat(ScrollCursor.supports("createdAt")).isTrue();
+        assertThat(ScrollCursor.supports("averageRating")).isFalse();
+    }
+}
@@ -0,0 +1,61 @@
+package com.propertyservice.propertyservice.migration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mise à niveau d'une base créée par ddl-auto avec l'arbre d'origine : Flyway la reprend en
+ * version 1, applique V2+ puis Hibernate valide le schéma au démarrage du contexte.
+ */
+@SpringBootTest
+@Testcontainers
+class BaselineSchemaMigrationTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withInitScript("db/baseline-ddl-auto.sql");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void existingDatabaseIsBaselinedThenMigrated() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank", String.class);
+
+        assertThat(versions).first().isEqualTo("1");
+        assertThat(versions).contains("2", "3", "4");
+    }
+
+    @Test
+    void ratingAggregatesAreBackfilledFromReviews() {
+        Map<String, Object> ratings = jdbcTemplate.queryForMap(
+                "SELECT rating_sum, rating_count, average_rating FROM properties WHERE id = 1");
+
+        assertThat(((Number) ratings.get("rating_sum")).longValue()).isEqualTo(9L);
+        assertThat(((Number) ratings.get("rating_count")).intValue()).isEqualTo(2);
+        assertThat(((Number) ratings.get("average_rating")).doubleValue()).isEqualTo(4.5);
+    }
+
+    @Test
+    void generatedUniqueConstraintIsReusedForUpserts() {
+        Integer uniqueConstraints = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_constraint WHERE conrelid = 'availability_calendar'::regclass AND contype = 'u'",
+                Integer.class);
+
+        assertThat(uniqueConstraints).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM availability_outbox", Integer.class)).isZero();
+    }
+}
@@ -0,0 +1,108 @@
+package com.propertyservice.propertyservice.migration;
+
+import com.propertyservice.propertyservice.TestcontainersConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Les finders des dépôts passent par les index de V3 sur un volume réaliste : chaque test
+ * génère ses données, lit le plan (EXPLAIN FORMAT JSON) puis tout est annulé en fin de test.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Transactional
+class RepositoryIndexUsageTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 20k propriétés ; les tests ajoutent les lignes filles dont ils ont besoin
+    @BeforeEach
+    void seedProperties() {
+        jdbcTemplate.execute("""
+                INSERT INTO properties (title, type, city, country, price_per_night, security_deposit, max_guests,
+                                        bedrooms, bathrooms, owner_id, owner_wallet_address, status,
+                                        min_stay_nights, cancellation_policy_days, created_at)
+                SELECT 'Property ' || g, 'APARTMENT', 'City ' || (g % 200), 'Country ' || (g % 20), 0.1, 0, 4,
+                       2, 1, g % 3000, '0xowner', 'ACTIVE', 1, 7, now() - g * INTERVAL '1 minute'
+                FROM generate_series(1, 20000) AS g
+                """);
+        jdbcTemplate.execute("ANALYZE properties");
+    }
+
+    @Test
+    void lockSweepUsesTheExpiryIndex() {
+        // 30 nuits par propriété dont 2 % verrouillées
+        jdbcTemplate.execute("""
+                INSERT INTO availability_calendar (property_id, date, status, lock_token, lock_expires_at, price_multiplier)
+                SELECT p.id, CURRENT_DATE + d,
+                       CASE WHEN (p.id + d) % 50 = 0 THEN 'LOCKED' ELSE 'BOOKED' END,
+                       CASE WHEN (p.id + d) % 50 = 0 THEN md5(p.id::text) END,
+                       CASE WHEN (p.id + d) % 50 = 0 THEN now() + ((p.id % 120) - 60) * INTERVAL '1 minute' END,
+                       1
+                FROM properties p, generate_series(0, 29) AS d
+                """);
+        jdbcTemplate.execute("ANALYZE availability_calendar");
+
+        assertIndexUsed("SELECT id FROM availability_calendar WHERE status = 'LOCKED' AND lock_token IS NOT NULL "
+                + "AND lock_expires_at < now() LIMIT 1000", "idx_availability_lock_expires_at");
+    }
+
+    @Test
+    void reviewFindersUseTheirIndexes() {
+        jdbcTemplate.execute("""
+                INSERT INTO reviews (rating, user_id, property_id, created_at)
+                SELECT 1 + (r % 5), (p.id * 7 + r) % 50000, p.id, now()
+                FROM properties p, generate_series(1, 5) AS r
+                """);
+        jdbcTemplate.execute("ANALYZE reviews");
+        long propertyId = anyPropertyId();
+
+        assertIndexUsed("SELECT * FROM reviews WHERE property_id = " + propertyId, "idx_reviews_property_id");
+        assertIndexUsed("SELECT 1 FROM reviews WHERE user_id = 123 AND property_id = " + propertyId,
+                "idx_reviews_user_id_property_id");
+    }
+
+    @Test
+    void imageAndAmenityFindersUseTheirIndexes() {
+        jdbcTemplate.execute("""
+                INSERT INTO property_images (image_url, display_order, property_id, created_at)
+                SELECT 'https://img/' || p.id || '/' || i, i, p.id, now()
+                FROM properties p, generate_series(0, 2) AS i
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO property_amenities (property_id, amenity)
+                SELECT p.id, (ARRAY['WIFI', 'POOL', 'PARKING', 'KITCHEN', 'AC'])[1 + (p.id + a) % 5]
+                FROM properties p, generate_series(0, 2) AS a
+                """);
+        jdbcTemplate.execute("ANALYZE property_images");
+        jdbcTemplate.execute("ANALYZE property_amenities");
+        long propertyId = anyPropertyId();
+
+        assertIndexUsed("SELECT * FROM property_images WHERE property_id = " + propertyId + " ORDER BY display_order",
+                "idx_property_images_property_id_display_order");
+        assertIndexUsed("SELECT amenity FROM property_amenities WHERE property_id = " + propertyId,
+                "idx_property_amenities_property_id");
+    }
+
+    @Test
+    void ownerListingsUseTheOwnerIndex() {
+        assertIndexUsed("SELECT * FROM properties WHERE owner_id = 42", "idx_properties_owner_id");
+    }
+
+    private long anyPropertyId() {
+        return jdbcTemplate.queryForObject("SELECT MIN(id) + 4242 FROM properties", Long.class);
+    }
+
+    private void assertIndexUsed(String query, String indexName) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + query, String.class);
+        assertThat(plan).as("plan of %s", query).contains("\"Index Name\": \"" + indexName + "\"");
+    }
+}
@@ -0,0 +1,101 @@
+package com.propertyservice.propertyservice.repository;
+
+import com.propertyservice.propertyservice.TestProperties;
+import com.propertyservice.propertyservice.TestcontainersConfiguration;
+import com.propertyservice.propertyservice.entity.AvailabilityCalendar;
+import com.propertyservice.propertyservice.entity.AvailabilityOutboxEvent;
+import com.propertyservice.propertyservice.entity.Property;
+import com.propertyservice.propertyservice.enu.AvailabilityStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Enregistrement des événements d'outbox par INSERT ... SELECT : une suite de nuits par
+ * événement, et une version prise seulement quand au moins une nuit correspond.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TestcontainersConfiguration.class)
+class AvailabilityOutboxRepositoryTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.now().plusDays(10);
+    private static final Set<String> LOCKED = Set.of(AvailabilityStatus.LOCKED.name());
+
+    @Autowired
+    private AvailabilityOutboxRepository outboxRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Property property;
+
+    @BeforeEach
+    void lockTwoRuns() {
+        property = propertyRepository.saveAndFlush(TestProperties.active("Studio", "Lyon", "France").build());
+        // Deux suites de nuits sous le même jeton : 10-11 et 13
+        for (int offset : new int[]{0, 1, 3}) {
+            availabilityRepository.saveAndFlush(AvailabilityCalendar.builder()
+                    .property(property)
+                    .date(CHECK_IN.plusDays(offset))
+                    .status(AvailabilityStatus.LOCKED)
+                    .lockToken("token")
+                    .lockExpiresAt(LocalDateTime.now().plusMinutes(30))
+                    .build());
+        }
+    }
+
+    @Test
+    void lockTokenChangeRecordsOneEventPerRunWithASharedVersion() {
+        int recorded = outboxRepository.recordLockTokenChange(property.getId(), "token", LOCKED, "BOOKED");
+
+        assertThat(recorded).isEqualTo(2);
+        List<AvailabilityOutboxEvent> events = outboxRepository.findAll();
+        assertThat(events).extracting(AvailabilityOutboxEvent::getStartDate, AvailabilityOutboxEvent::getEndDate)
+                .containsExactlyInAnyOrder(
+                        tuple(CHECK_IN, CHECK_IN.plusDays(1)),
+                        tuple(CHECK_IN.plusDays(3), CHECK_IN.plusDays(3)));
+        assertThat(events).extracting(AvailabilityOutboxEvent::getVersion).containsOnly(1L);
+        assertThat(outboxRepository.nextVersion(property.getId())).isEqualTo(2L);
+    }
+
+    @Test
+    void changesMatchingNoNightDoNotTakeAVersion() {
+        assertThat(outboxRepository.recordLockTokenChange(property.getId(), "unknown", LOCKED, "AVAILABLE")).isZero();
+        assertThat(outboxRepository.recordDatesChange(property.getId(), List.of(CHECK_IN.plusDays(2)),
+                LOCKED, "AVAILABLE")).isZero();
+
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM availability_versions WHERE property_id = ?", Integer.class, property.getId()))
+                .isZero();
+        assertThat(outboxRepository.nextVersion(property.getId())).isEqualTo(1L);
+    }
+
+    @Test
+    void datesChangeOnlyCoversNightsStillInTheSourceStatus() {
+        int recorded = outboxRepository.recordDatesChange(property.getId(),
+                List.of(CHECK_IN, CHECK_IN.plusDays(2), CHECK_IN.plusDays(3)), LOCKED, "AVAILABLE");
+
+        assertThat(recorded).isEqualTo(2);
+        assertThat(outboxRepository.findAll()).extracting(AvailabilityOutboxEvent::getVersion).containsOnly(1L);
+    }
+}
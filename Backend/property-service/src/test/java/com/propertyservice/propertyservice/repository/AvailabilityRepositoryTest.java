@@ -0,0 +1,180 @@
+package com.propertyservice.propertyservice.repository;
+
+import com.propertyservice.propertyservice.TestProperties;
+import com.propertyservice.propertyservice.TestcontainersConfiguration;
+import com.propertyservice.propertyservice.entity.AvailabilityCalendar;
+import com.propertyservice.propertyservice.entity.Property;
+import com.propertyservice.propertyservice.enu.AvailabilityStatus;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Requêtes natives du calendrier (INSERT ... ON CONFLICT, UPDATE ... RETURNING, SKIP LOCKED)
+ * exécutées sur Postgres avec le schéma Flyway.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TestcontainersConfiguration.class)
+class AvailabilityRepositoryTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.now().plusDays(10);
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Property property;
+
+    @BeforeEach
+    void createProperty() {
+        property = propertyRepository.saveAndFlush(TestProperties.active("Studio", "Lyon", "France").build());
+    }
+
+    @Test
+    void upsertLockedRangeCreatesMissingNightsAndTakesAvailableOnes() {
+        night(CHECK_IN.plusDays(1), AvailabilityStatus.AVAILABLE, null, null);
+
+        int locked = availabilityRepository.upsertLockedRange(property.getId(), CHECK_IN, CHECK_IN.plusDays(2),
+                "token-a", LocalDateTime.now().plusHours(1), 42L);
+        entityManager.clear();
+
+        assertThat(locked).isEqualTo(3);
+        assertThat(availabilityRepository.findByPropertyIdAndDateBetween(property.getId(), CHECK_IN, CHECK_IN.plusDays(2)))
+                .allSatisfy(night -> {
+                    assertThat(night.getStatus()).isEqualTo(AvailabilityStatus.LOCKED);
+                    assertThat(night.getLockToken()).isEqualTo("token-a");
+                    assertThat(night.getTenantId()).isEqualTo(42L);
+                })
+                .hasSize(3);
+    }
+
+    @Test
+    void upsertLockedRangeLeavesLockedAndBookedNightsUntouched() {
+        night(CHECK_IN.plusDays(1), AvailabilityStatus.BOOKED, "booked", null);
+        night(CHECK_IN.plusDays(2), AvailabilityStatus.LOCKED, "other", LocalDateTime.now().plusMinutes(30));
+
+        int locked = availabilityRepository.upsertLockedRange(property.getId(), CHECK_IN, CHECK_IN.plusDays(2),
+                "token-b", LocalDateTime.now().plusHours(1), 42L);
+        entityManager.clear();
+
+        // L'appelant compare au nombre de nuits et annule la transaction
+        assertThat(locked).isEqualTo(1);
+        assertThat(availabilityRepository.findByPropertyIdAndDate(property.getId(), CHECK_IN.plusDays(1)))
+                .get().extracting(AvailabilityCalendar::getStatus, AvailabilityCalendar::getLockToken)
+                .containsExactly(AvailabilityStatus.BOOKED, "booked");
+        assertThat(availabilityRepository.findByPropertyIdAndDate(property.getId(), CHECK_IN.plusDays(2)))
+                .get().extracting(AvailabilityCalendar::getStatus, AvailabilityCalendar::getLockToken)
+                .containsExactly(AvailabilityStatus.LOCKED, "other");
+    }
+
+    @Test
+    void releaseExpiredLocksReturnsReleasedNightsOnly() {
+        LocalDateTime now = LocalDateTime.now();
+        night(CHECK_IN, AvailabilityStatus.LOCKED, "expired", now.minusMinutes(5));
+        night(CHECK_IN.plusDays(1), AvailabilityStatus.LOCKED, "expired", now.minusMinutes(5));
+        night(CHECK_IN.plusDays(2), AvailabilityStatus.LOCKED, "live", now.plusMinutes(30));
+
+        List<Object[]> released = availabilityRepository.releaseExpiredLocks(now, 100);
+        entityManager.clear();
+
+        assertThat(released)
+                .extracting(row -> ((Number) row[0]).longValue(), row -> date(row[1]))
+                .containsExactlyInAnyOrder(
+                        tuple(property.getId(), CHECK_IN),
+                        tuple(property.getId(), CHECK_IN.plusDays(1)));
+        assertThat(availabilityRepository.findByPropertyIdAndDate(property.getId(), CHECK_IN))
+                .get().satisfies(night -> {
+                    assertThat(night.getStatus()).isEqualTo(AvailabilityStatus.AVAILABLE);
+                    assertThat(night.getLockToken()).isNull();
+                    assertThat(night.getLockExpiresAt()).isNull();
+                    assertThat(night.getTenantId()).isNull();
+                });
+        assertThat(availabilityRepository.findByPropertyIdAndDate(property.getId(), CHECK_IN.plusDays(2)))
+                .get().extracting(AvailabilityCalendar::getStatus).isEqualTo(AvailabilityStatus.LOCKED);
+    }
+
+    @Test
+    void releaseExpiredLocksStopsAtTheBatchSize() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            night(CHECK_IN.plusDays(i), AvailabilityStatus.LOCKED, "expired", now.minusMinutes(5));
+        }
+
+        assertThat(availabilityRepository.releaseExpiredLocks(now, 2)).hasSize(2);
+        assertThat(availabilityRepository.releaseExpiredLocks(now, 2)).hasSize(2);
+        assertThat(availabilityRepository.releaseExpiredLocks(now, 2)).hasSize(1);
+        assertThat(availabilityRepository.releaseExpiredLocks(now, 2)).isEmpty();
+    }
+
+    @Test
+    void ownerBlockOverAnActiveLockSurvivesItsExpiry() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(5);
+        night(CHECK_IN, AvailabilityStatus.LOCKED, "tenant", expiresAt);
+
+        availabilityRepository.upsertBookedDates(property.getId(), List.of(CHECK_IN));
+        entityManager.clear();
+
+        assertThat(availabilityRepository.findByPropertyIdAndDate(property.getId(), CHECK_IN))
+                .get().satisfies(night -> {
+                    assertThat(night.getStatus()).isEqualTo(AvailabilityStatus.BOOKED);
+                    assertThat(night.getLockToken()).isNull();
+                    assertThat(night.getLockExpiresAt()).isNull();
+                    assertThat(night.getTenantId()).isNull();
+                });
+
+        // Ni le balayage ni la roue ne rendent la nuit une fois le verrou échu
+        LocalDateTime afterExpiry = expiresAt.plusMinutes(1);
+        assertThat(availabilityRepository.releaseExpiredLocks(afterExpiry, 100)).isEmpty();
+        assertThat(availabilityRepository.releaseExpiredLock(property.getId(), "tenant", afterExpiry)).isZero();
+        entityManager.clear();
+        assertThat(availabilityRepository.findByPropertyIdAndDate(property.getId(), CHECK_IN))
+                .get().extracting(AvailabilityCalendar::getStatus).isEqualTo(AvailabilityStatus.BOOKED);
+    }
+
+    @Test
+    void releaseStatementsIgnoreBookedNightsThatStillCarryAnExpiry() {
+        // Ligne laissée par l'ancien blocage : BOOKED avec le jeton et l'échéance du verrou remplacé
+        LocalDateTime now = LocalDateTime.now();
+        night(CHECK_IN, AvailabilityStatus.BOOKED, "tenant", now.minusMinutes(5));
+
+        assertThat(availabilityRepository.releaseExpiredLocks(now, 100)).isEmpty();
+        assertThat(availabilityRepository.releaseExpiredLock(property.getId(), "tenant", now)).isZero();
+        entityManager.clear();
+        assertThat(availabilityRepository.findByPropertyIdAndDate(property.getId(), CHECK_IN))
+                .get().extracting(AvailabilityCalendar::getStatus).isEqualTo(AvailabilityStatus.BOOKED);
+    }
+
+    private void night(LocalDate date, AvailabilityStatus status, String lockToken, LocalDateTime expiresAt) {
+        availabilityRepository.saveAndFlush(AvailabilityCalendar.builder()
+                .property(property)
+                .date(date)
+                .status(status)
+                .lockToken(lockToken)
+                .lockExpiresAt(expiresAt)
+                .tenantId(lockToken != null ? 7L : null)
+                .build());
+    }
+
+    // Le pilote renvoie java.sql.Date ou LocalDate selon la configuration de Hibernate
+    private static LocalDate date(Object value) {
+        return value instanceof LocalDate localDate ? localDate : ((Date) value).toLocalDate();
+    }
+}
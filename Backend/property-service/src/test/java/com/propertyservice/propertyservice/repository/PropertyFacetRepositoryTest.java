@@ -0,0 +1,64 @@
+package com.propertyservice.propertyservice.repository;
+
+import com.propertyservice.propertyservice.TestProperties;
+import com.propertyservice.propertyservice.TestcontainersConfiguration;
+import com.propertyservice.propertyservice.enu.PropertyType;
+import com.propertyservice.propertyservice.specification.PropertySpecifications;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Requêtes de facettes exécutées sur Postgres : le GROUP BY sur la tranche de prix doit être
+ * accepté par le moteur, pas seulement par Hibernate.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TestcontainersConfiguration.class)
+class PropertyFacetRepositoryTest {
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Test
+    void groupsByTypePriceBucketAndBedrooms() {
+        propertyRepository.saveAndFlush(TestProperties.active("A", "Paris", "France")
+                .pricePerNight(new BigDecimal("0.02")).bedrooms(1).build());
+        propertyRepository.saveAndFlush(TestProperties.active("B", "Paris", "France")
+                .pricePerNight(new BigDecimal("0.04")).bedrooms(1).build());
+        propertyRepository.saveAndFlush(TestProperties.active("C", "Lyon", "France")
+                .pricePerNight(new BigDecimal("0.12")).bedrooms(3).type(PropertyType.HOUSE).build());
+
+        List<Object[]> rows = propertyRepository.countByTypePriceBucketAndBedrooms(
+                PropertySpecifications.isAvailable(), new BigDecimal("0.05"));
+
+        assertThat(rows)
+                .extracting(row -> tuple(row[0], ((Number) row[1]).longValue(), row[2], ((Number) row[3]).longValue()))
+                .containsExactlyInAnyOrder(
+                        tuple(PropertyType.APARTMENT, 0L, 1, 2L),
+                        tuple(PropertyType.HOUSE, 2L, 3, 1L));
+    }
+
+    @Test
+    void countsDistinctListingsPerAmenity() {
+        propertyRepository.saveAndFlush(TestProperties.active("A", "Paris", "France")
+                .amenities(new ArrayList<>(List.of("wifi", "parking"))).build());
+        propertyRepository.saveAndFlush(TestProperties.active("B", "Paris", "France")
+                .amenities(new ArrayList<>(List.of("wifi"))).build());
+
+        List<Object[]> rows = propertyRepository.countByAmenity(PropertySpecifications.isAvailable());
+
+        assertThat(rows)
+                .extracting(row -> tuple(row[0], ((Number) row[1]).longValue()))
+                .containsExactlyInAnyOrder(tuple("wifi", 2L), tuple("parking", 1L));
+    }
+}
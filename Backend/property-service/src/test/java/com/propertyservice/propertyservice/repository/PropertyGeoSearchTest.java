@@ -0,0 +1,52 @@
+package com.propertyservice.propertyservice.repository;
+
+import com.propertyservice.propertyservice.TestProperties;
+import com.propertyservice.propertyservice.TestcontainersConfiguration;
+import com.propertyservice.propertyservice.entity.Address;
+import com.propertyservice.propertyservice.entity.Property;
+import com.propertyservice.propertyservice.specification.PropertySpecifications;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recherche par rayon (PropertySpecifications.withinRadius) exécutée sur Postgres.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TestcontainersConfiguration.class)
+class PropertyGeoSearchTest {
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Test
+    void radiusAcrossTheAntimeridianFindsPointsOnTheOtherSide() {
+        Property fiji = propertyRepository.saveAndFlush(at(-16.5, -179.9));
+        propertyRepository.saveAndFlush(at(-16.5, 170.0));
+
+        assertThat(propertyRepository.findAll(PropertySpecifications.withinRadius(-16.5, 179.9, 50.0)))
+                .extracting(Property::getId)
+                .containsExactly(fiji.getId());
+    }
+
+    @Test
+    void antipodalDistanceDoesNotOverflowAsin() {
+        Property antipode = propertyRepository.saveAndFlush(at(-48.8566, -177.6478));
+
+        // Rayon supérieur à la demi-circonférence : seul le calcul exact décide
+        assertThat(propertyRepository.findAll(PropertySpecifications.withinRadius(48.8566, 2.3522, 20100.0)))
+                .extracting(Property::getId)
+                .containsExactly(antipode.getId());
+    }
+
+    private static Property at(double latitude, double longitude) {
+        return TestProperties.active("Annonce", "Ville", "Pays")
+                .address(new Address(null, "Ville", null, null, "Pays", latitude, longitude))
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.propertyservice.propertyservice.repository;
+
+import com.propertyservice.propertyservice.TestProperties;
+import com.propertyservice.propertyservice.TestcontainersConfiguration;
+import com.propertyservice.propertyservice.entity.Property;
+import com.propertyservice.propertyservice.enu.ListingStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * /search/text (PropertyRepository.searchRanked) sur le schéma Flyway : garde la recherche
+ * par sous-chaîne du titre, de la ville et du pays, sans remonter les descriptions.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TestcontainersConfiguration.class)
+class PropertyRepositorySearchTest {
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Test
+    void matchesSubstringsOfTitleCityAndCountryButNotDescription() {
+        Property paris = propertyRepository.saveAndFlush(TestProperties.active("Loft lumineux", "Paris", "France")
+                .description("Calme, avec balcon").build());
+        propertyRepository.saveAndFlush(TestProperties.active("Studio Bellecour", "Lyon", "France")
+                .description("Accès par le tram, avec parking").build());
+
+        assertThat(search("par")).extracting(Property::getId).containsExactly(paris.getId());
+        assertThat(search("avec")).isEmpty();
+    }
+
+    @Test
+    void ranksWholeWordMatchesBeforeSubstringMatches() {
+        Property substring = propertyRepository.saveAndFlush(
+                TestProperties.active("Appartement parisien", "Lyon", "France").build());
+        Property word = propertyRepository.saveAndFlush(TestProperties.active("Studio", "Paris", "France").build());
+
+        assertThat(search("paris")).extracting(Property::getId).containsExactly(word.getId(), substring.getId());
+    }
+
+    @Test
+    void matchesAllWordsAcrossFields() {
+        Property studio = propertyRepository.saveAndFlush(TestProperties.active("Studio calme", "Lyon", "France").build());
+        propertyRepository.saveAndFlush(TestProperties.active("Studio calme", "Nice", "France").build());
+
+        assertThat(search("studio lyon")).extracting(Property::getId).containsExactly(studio.getId());
+    }
+
+    @Test
+    void ignoresListingsThatAreNotActive() {
+        propertyRepository.saveAndFlush(TestProperties.active("Villa", "Paris", "France")
+                .status(ListingStatus.PENDING_ADMIN).build());
+
+        assertThat(search("paris")).isEmpty();
+    }
+
+    private List<Property> search(String query) {
+        Page<Property> page = propertyRepository.searchRanked(query.trim(), "%" + query.toLowerCase() + "%",
+                PageRequest.of(0, 10));
+        return page.getContent();
+    }
+}
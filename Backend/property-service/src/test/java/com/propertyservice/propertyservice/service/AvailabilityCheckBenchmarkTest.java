@@ -0,0 +1,119 @@
+package com.propertyservice.propertyservice.service;
+
+import com.propertyservice.propertyservice.TestProperties;
+import com.propertyservice.propertyservice.TestcontainersConfiguration;
+import com.propertyservice.propertyservice.entity.Property;
+import com.propertyservice.propertyservice.repository.AvailabilityRepository;
+import com.propertyservice.propertyservice.repository.PropertyRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérification de disponibilité sur le calendrier SQL (index en mémoire désactivé) :
+ * le nombre d'instructions ne dépend pas de la longueur du séjour, la latence est relevée
+ * pour 1, 30 et 180 nuits sur un calendrier dense.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.availability.index.enabled=false"
+})
+@Import(TestcontainersConfiguration.class)
+class AvailabilityCheckBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityCheckBenchmarkTest.class);
+
+    private static final int[] STAY_LENGTHS = {1, 30, 180};
+    private static final int WARM_UP = 50;
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Property property;
+
+    @BeforeEach
+    void seedCalendar() {
+        property = propertyRepository.saveAndFlush(TestProperties.active("Studio", "Lyon", "France").build());
+        // Une ligne par nuit sur un an, comme en stockage dense, et une nuit réservée au-delà des séjours testés
+        jdbcTemplate.update("""
+                INSERT INTO availability_calendar (property_id, date, status, price_multiplier)
+                SELECT ?, CURRENT_DATE + d, CASE WHEN d = 300 THEN 'BOOKED' ELSE 'AVAILABLE' END, 1.00
+                FROM generate_series(0, 364) AS d
+                """, property.getId());
+        jdbcTemplate.execute("ANALYZE availability_calendar");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        availabilityRepository.deleteAllInBatch();
+        propertyRepository.deleteAll();
+    }
+
+    @Test
+    void statementCountIsIndependentOfStayLength() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        LocalDate checkIn = LocalDate.now().plusDays(1);
+
+        Map<Integer, Long> statementsByLength = new LinkedHashMap<>();
+        for (int nights : STAY_LENGTHS) {
+            statistics.clear();
+            assertThat(availabilityService.isPropertyAvailable(property.getId(), checkIn, checkIn.plusDays(nights)))
+                    .isTrue();
+            statementsByLength.put(nights, statistics.getPrepareStatementCount());
+        }
+
+        // Lecture de la propriété puis une seule requête sur la période
+        assertThat(statementsByLength.values()).containsOnly(2L);
+        assertThat(availabilityService.isPropertyAvailable(property.getId(), checkIn, checkIn.plusDays(300)))
+                .isFalse();
+
+        for (int nights : STAY_LENGTHS) {
+            long[] samples = time(checkIn, checkIn.plusDays(nights));
+            log.info("isPropertyAvailable {} nights: median {} µs, p95 {} µs",
+                    nights, samples[samples.length / 2] / 1_000, samples[samples.length * 95 / 100] / 1_000);
+        }
+    }
+
+    private long[] time(LocalDate startDate, LocalDate endDate) {
+        for (int i = 0; i < WARM_UP; i++) {
+            availabilityService.isPropertyAvailable(property.getId(), startDate, endDate);
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            availabilityService.isPropertyAvailable(property.getId(), startDate, endDate);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+}
@@ -0,0 +1,153 @@
+package com.propertyservice.propertyservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.propertyservice.propertyservice.TestcontainersConfiguration;
+import com.propertyservice.propertyservice.config.RabbitConfig;
+import com.propertyservice.propertyservice.dto.AvailabilityChangedEvent;
+import com.propertyservice.propertyservice.entity.AvailabilityOutboxEvent;
+import com.propertyservice.propertyservice.enu.AvailabilityStatus;
+import com.propertyservice.propertyservice.repository.AvailabilityOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Relais de l'outbox vers un vrai broker : les lignes ne disparaissent qu'après confirmation
+ * et les messages portent la version attribuée à la propriété. Le relais planifié est espacé
+ * d'une heure : seul l'appel explicite du test publie.
+ */
+@SpringBootTest(properties = "app.availability.events.relay-interval-ms=3600000")
+@Import(TestcontainersConfiguration.class)
+class AvailabilityEventRelayTest {
+
+    private static final long PROPERTY_ID = 4242L;
+    private static final LocalDate CHECK_IN = LocalDate.now().plusDays(7);
+
+    @Autowired
+    private AvailabilityEventPublisher availabilityEvents;
+
+    @Autowired
+    private AvailabilityOutboxRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private AmqpAdmin amqpAdmin;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Queue queue = new AnonymousQueue();
+
+    @BeforeEach
+    void bindQueue() {
+        amqpAdmin.declareQueue(queue);
+        amqpAdmin.declareBinding(BindingBuilder.bind(queue)
+                .to(new TopicExchange(RabbitConfig.BOOKING_EXCHANGE))
+                .with(RabbitConfig.AVAILABILITY_CHANGED));
+    }
+
+    @AfterEach
+    void deleteQueue() {
+        amqpAdmin.deleteQueue(queue.getName());
+        outboxRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void relayPublishesConfirmedEventsAndDeletesThem() throws IOException {
+        transactionTemplate.executeWithoutResult(status ->
+                availabilityEvents.recordRange(PROPERTY_ID, CHECK_IN, CHECK_IN.plusDays(2), AvailabilityStatus.LOCKED));
+        assertThat(outboxRepository.count()).isEqualTo(1);
+
+        availabilityEvents.relayPendingEvents();
+
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(receive(1)).singleElement().satisfies(event -> {
+            assertThat(event.getPropertyId()).isEqualTo(PROPERTY_ID);
+            assertThat(event.getStartDate()).isEqualTo(CHECK_IN);
+            assertThat(event.getEndDate()).isEqualTo(CHECK_IN.plusDays(2));
+            assertThat(event.getStatus()).isEqualTo("LOCKED");
+            assertThat(event.getVersion()).isNotNull();
+        });
+    }
+
+    @Test
+    void eventsOfOneChangeShareAVersionAndLaterChangesGetAHigherOne() throws IOException {
+        // Deux suites de nuits dans un même changement, puis un second changement
+        transactionTemplate.executeWithoutResult(status -> availabilityEvents.recordDates(PROPERTY_ID,
+                List.of(CHECK_IN, CHECK_IN.plusDays(1), CHECK_IN.plusDays(5)), AvailabilityStatus.BOOKED));
+        transactionTemplate.executeWithoutResult(status ->
+                availabilityEvents.recordRange(PROPERTY_ID, CHECK_IN, CHECK_IN, AvailabilityStatus.AVAILABLE));
+
+        availabilityEvents.relayPendingEvents();
+
+        List<AvailabilityChangedEvent> events = receive(3);
+        events.sort(Comparator.comparing(AvailabilityChangedEvent::getVersion)
+                .thenComparing(AvailabilityChangedEvent::getStartDate));
+        assertThat(events).extracting(AvailabilityChangedEvent::getStatus)
+                .containsExactly("BOOKED", "BOOKED", "AVAILABLE");
+        assertThat(events.get(0).getVersion()).isEqualTo(events.get(1).getVersion());
+        assertThat(events.get(2).getVersion()).isGreaterThan(events.get(1).getVersion());
+    }
+
+    @Test
+    void claimedEventsAreSkippedByOtherRelaysUntilReleased() {
+        transactionTemplate.executeWithoutResult(status ->
+                availabilityEvents.recordRange(PROPERTY_ID, CHECK_IN, CHECK_IN, AvailabilityStatus.BOOKED));
+
+        // Le bail est commité avec le lot : un autre relais ne le reprend pas
+        List<AvailabilityOutboxEvent> claimed = outboxRepository.claimPendingBatch(10, 60_000);
+        assertThat(claimed).singleElement().satisfies(event -> assertThat(event.getClaimedUntil()).isNotNull());
+        assertThat(outboxRepository.claimPendingBatch(10, 60_000)).isEmpty();
+
+        outboxRepository.releaseClaims(List.of(claimed.get(0).getId()));
+        assertThat(outboxRepository.claimPendingBatch(10, 60_000)).extracting(AvailabilityOutboxEvent::getId)
+                .containsExactly(claimed.get(0).getId());
+    }
+
+    @Test
+    void expiredClaimsArePublishedAgain() {
+        transactionTemplate.executeWithoutResult(status ->
+                availabilityEvents.recordRange(PROPERTY_ID, CHECK_IN, CHECK_IN, AvailabilityStatus.BOOKED));
+        // Relais arrêté en cours de lot : bail déjà échu
+        assertThat(outboxRepository.claimPendingBatch(10, -1)).hasSize(1);
+
+        availabilityEvents.relayPendingEvents();
+
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    // Corps JSON lu tel quel : le convertisseur n'accepte pas les types hors java.* annoncés en en-tête
+    private List<AvailabilityChangedEvent> receive(int count) throws IOException {
+        List<AvailabilityChangedEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Message message = rabbitTemplate.receive(queue.getName(), 10_000);
+            assertThat(message).isNotNull();
+            events.add(objectMapper.readValue(message.getBody(), AvailabilityChangedEvent.class));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,74 @@
+package com.propertyservice.propertyservice.service;
+
+import com.propertyservice.propertyservice.repository.AvailabilityRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AvailabilityIndexTest {
+
+    private static final LocalDate TOMORROW = LocalDate.now().plusDays(1);
+
+    private final AvailabilityRepository availabilityRepository = mock(AvailabilityRepository.class);
+    private final AvailabilityIndex index = new AvailabilityIndex(availabilityRepository, new SimpleMeterRegistry(), true);
+
+    @Test
+    void writesCommittedDuringRebuildAreReplayedOnTheNewSnapshot() {
+        when(availabilityRepository.findUnavailableNights(any(), any(), anyCollection()))
+                .thenReturn(List.of());
+        index.rebuild();
+
+        // Calendrier lu avant deux commits : nuit 1 encore réservée, nuit 3 encore libre
+        when(availabilityRepository.findUnavailableNights(any(), any(), anyCollection())).thenAnswer(invocation -> {
+            index.markAvailable(1L, List.of(TOMORROW));
+            index.markUnavailable(2L, TOMORROW.plusDays(2), TOMORROW.plusDays(3));
+            List<Object[]> nights = new ArrayList<>();
+            nights.add(new Object[]{1L, TOMORROW});
+            return nights;
+        });
+        index.rebuild();
+
+        assertThat(index.isRangeFree(1L, TOMORROW, TOMORROW)).contains(true);
+        assertThat(index.isRangeFree(2L, TOMORROW, TOMORROW.plusDays(1))).contains(true);
+        assertThat(index.getUnavailableDates(2L, TOMORROW, TOMORROW.plusDays(5)))
+                .contains(List.of(TOMORROW.plusDays(2), TOMORROW.plusDays(3)));
+        assertThat(index.getPropertiesUnavailableBetween(TOMORROW, TOMORROW.plusDays(5))).contains(Set.of(2L));
+    }
+
+    @Test
+    void refreshDuringRebuildReplacesTheCalendarOfTheNewSnapshot() {
+        when(availabilityRepository.findUnavailableNightsForProperty(any(), any(), any(), anyCollection()))
+                .thenReturn(List.of(TOMORROW.plusDays(4)));
+        when(availabilityRepository.findUnavailableNights(any(), any(), anyCollection())).thenAnswer(invocation -> {
+            index.refresh(7L);
+            return new ArrayList<Object[]>();
+        });
+        index.rebuild();
+        index.rebuild();
+
+        assertThat(index.getUnavailableDates(7L, TOMORROW, TOMORROW.plusDays(10)))
+                .contains(List.of(TOMORROW.plusDays(4)));
+    }
+
+    @Test
+    void writesAfterRebuildAreNotJournaled() {
+        when(availabilityRepository.findUnavailableNights(any(), any(), anyCollection()))
+                .thenReturn(new ArrayList<>());
+        index.rebuild();
+        index.markUnavailable(3L, TOMORROW, TOMORROW);
+        index.rebuild();
+
+        // La base (vide) fait foi une fois la reconstruction terminée
+        assertThat(index.isRangeFree(3L, TOMORROW, TOMORROW)).contains(true);
+    }
+}
@@ -0,0 +1,164 @@
+package com.propertyservice.propertyservice.service;
+
+import com.propertyservice.propertyservice.TestProperties;
+import com.propertyservice.propertyservice.TestcontainersConfiguration;
+import com.propertyservice.propertyservice.entity.AvailabilityCalendar;
+import com.propertyservice.propertyservice.entity.Property;
+import com.propertyservice.propertyservice.enu.AvailabilityStatus;
+import com.propertyservice.propertyservice.repository.AvailabilityOutboxRepository;
+import com.propertyservice.propertyservice.repository.AvailabilityRepository;
+import com.propertyservice.propertyservice.repository.PropertyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verrous concurrents sur des nuits communes : un seul doit aboutir, que les appels passent
+ * par le même réplica (stripe en mémoire) ou par deux réplicas (seule la base arbitre).
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class AvailabilityLockConcurrencyTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.now().plusDays(30);
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private AvailabilityOutboxRepository outboxRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private Property property;
+
+    @BeforeEach
+    void createProperty() {
+        property = propertyRepository.saveAndFlush(TestProperties.active("Studio", "Lyon", "France").build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        executor.shutdownNow();
+        availabilityRepository.deleteAllInBatch();
+        outboxRepository.deleteAllInBatch();
+        propertyRepository.deleteAll();
+    }
+
+    @Test
+    void overlappingLocksOnTheSameReplicaLetOnlyOneThrough() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        Future<String> first = executor.submit(lockAfter(start, CHECK_IN, CHECK_IN.plusDays(2)));
+        Future<String> second = executor.submit(lockAfter(start, CHECK_IN.plusDays(2), CHECK_IN.plusDays(4)));
+        start.countDown();
+
+        List<String> tokens = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<String> lock : List.of(first, second)) {
+            try {
+                tokens.add(lock.get(30, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            }
+        }
+
+        assertThat(tokens).hasSize(1);
+        assertThat(failures).singleElement()
+                .extracting(Throwable::getMessage).isEqualTo("Dates not available for reservation");
+        List<AvailabilityCalendar> locked = availabilityRepository.findByPropertyIdAndDateBetweenAndStatus(
+                property.getId(), CHECK_IN, CHECK_IN.plusDays(4), AvailabilityStatus.LOCKED);
+        assertThat(locked).hasSize(3).allSatisfy(night -> assertThat(night.getLockToken()).isEqualTo(tokens.get(0)));
+    }
+
+    @Test
+    void upsertsFromTwoReplicasCannotBothTakeANight() throws Exception {
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(1);
+        CountDownLatch firstUpserted = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+
+        // Premier réplica : pose son verrou et garde la transaction ouverte
+        Future<Integer> first = executor.submit(() -> transactionTemplate.execute(status -> {
+            int locked = availabilityRepository.upsertLockedRange(
+                    property.getId(), CHECK_IN, CHECK_IN.plusDays(2), "replica-a", expiresAt, 1L);
+            firstUpserted.countDown();
+            await(commitFirst);
+            return locked;
+        }));
+        assertThat(firstUpserted.await(30, TimeUnit.SECONDS)).isTrue();
+
+        // Second réplica, sans stripe commune : bloque sur la nuit partagée jusqu'au commit du premier
+        Future<Integer> second = executor.submit(() -> transactionTemplate.execute(status ->
+                availabilityRepository.upsertLockedRange(
+                        property.getId(), CHECK_IN.plusDays(2), CHECK_IN.plusDays(4), "replica-b", expiresAt, 2L)));
+        // Les deux insertions se recouvrent vraiment : le second backend attend le verrou du premier
+        assertThat(awaitBlockedBackend()).as("second upsert waiting on the first one's lock").isTrue();
+        assertThat(second.isDone()).isFalse();
+        commitFirst.countDown();
+
+        assertThat(first.get(30, TimeUnit.SECONDS)).isEqualTo(3);
+        assertThat(second.get(30, TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(availabilityRepository.findByPropertyIdAndDate(property.getId(), CHECK_IN.plusDays(2)))
+                .get().extracting(AvailabilityCalendar::getLockToken).isEqualTo("replica-a");
+    }
+
+    private boolean awaitBlockedBackend() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            Integer blocked = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_stat_activity WHERE datname = current_database() "
+                            + "AND wait_event_type = 'Lock' AND query LIKE 'INSERT INTO availability_calendar%'",
+                    Integer.class);
+            if (blocked != null && blocked > 0) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+
+    private Callable<String> lockAfter(CountDownLatch start, LocalDate startDate, LocalDate endDate) {
+        return () -> {
+            await(start);
+            return availabilityService.lockDatesForReservation(property.getId(), startDate, endDate, 1L);
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
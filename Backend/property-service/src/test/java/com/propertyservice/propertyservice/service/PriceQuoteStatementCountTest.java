@@ -0,0 +1,149 @@
+package com.propertyservice.propertyservice.service;
+
+import com.propertyservice.propertyservice.TestProperties;
+import com.propertyservice.propertyservice.TestcontainersConfiguration;
+import com.propertyservice.propertyservice.dto.PriceCalculationResult;
+import com.propertyservice.propertyservice.entity.Property;
+import com.propertyservice.propertyservice.repository.AvailabilityRepository;
+import com.propertyservice.propertyservice.repository.PropertyRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Instructions SQL d'un devis (calculatePriceWithAvailability) sur le calendrier SQL :
+ * une lecture de la propriété, une sonde de disponibilité et au plus une projection
+ * des multiplicateurs (absente quand le devis est déjà en cache).
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.availability.index.enabled=false"
+})
+@Import(TestcontainersConfiguration.class)
+class PriceQuoteStatementCountTest {
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SqlRecorder sqlRecorder;
+
+    private Property property;
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class SqlRecorderConfiguration {
+
+        @Bean
+        SqlRecorder sqlRecorder() {
+            return new SqlRecorder();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer sqlRecorderCustomizer(SqlRecorder sqlRecorder) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlRecorder);
+        }
+    }
+
+    // Garde le SQL préparé par Hibernate, sans le modifier
+    static class SqlRecorder implements StatementInspector {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql.toLowerCase(Locale.ROOT));
+            return sql;
+        }
+
+        void clear() {
+            statements.clear();
+        }
+
+        long count(String table) {
+            return statements.stream().filter(sql -> sql.contains(" from " + table + " ")).count();
+        }
+
+        long multiplierProjections() {
+            return statements.stream()
+                    .filter(sql -> sql.contains(" from availability_calendar ") && sql.contains("price_multiplier<>"))
+                    .count();
+        }
+    }
+
+    @BeforeEach
+    void seedCalendar() {
+        property = propertyRepository.saveAndFlush(TestProperties.active("Studio", "Lyon", "France").build());
+        // Nuits matérialisées, dont une à tarif majoré dans le séjour
+        jdbcTemplate.update("""
+                INSERT INTO availability_calendar (property_id, date, status, price_multiplier)
+                SELECT ?, CURRENT_DATE + d, 'AVAILABLE', CASE WHEN d = 5 THEN 1.50 ELSE 1.00 END
+                FROM generate_series(0, 60) AS d
+                """, property.getId());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        availabilityRepository.deleteAllInBatch();
+        propertyRepository.deleteAll();
+    }
+
+    @Test
+    void quoteLoadsThePropertyOnceProbesOnceAndProjectsMultipliersAtMostOnce() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        LocalDate checkIn = LocalDate.now().plusDays(1);
+        LocalDate checkOut = checkIn.plusDays(10);
+
+        statistics.clear();
+        sqlRecorder.clear();
+        PriceCalculationResult quote = availabilityService.calculatePriceWithAvailability(
+                property.getId(), checkIn, checkOut, 7L);
+
+        assertThat(quote.getTotalPrice()).isEqualByComparingTo(property.getPricePerNight().multiply(new BigDecimal("10.50")));
+        assertThat(sqlRecorder.count("properties")).isEqualTo(1);
+        assertThat(sqlRecorder.count("availability_calendar") - sqlRecorder.multiplierProjections()).isEqualTo(1);
+        assertThat(sqlRecorder.multiplierProjections()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+
+        // Même devis : le total vient du cache, seules la propriété et la disponibilité sont relues
+        statistics.clear();
+        sqlRecorder.clear();
+        availabilityService.calculatePriceWithAvailability(property.getId(), checkIn, checkOut, 7L);
+
+        assertThat(sqlRecorder.count("properties")).isEqualTo(1);
+        assertThat(sqlRecorder.count("availability_calendar")).isEqualTo(1);
+        assertThat(sqlRecorder.multiplierProjections()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,104 @@
+package com.propertyservice.propertyservice.service;
+
+import com.propertyservice.propertyservice.TestProperties;
+import com.propertyservice.propertyservice.dto.SearchRequest;
+import com.propertyservice.propertyservice.entity.Property;
+import com.propertyservice.propertyservice.enu.PropertyType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2026, 6, 1);
+
+    private final SearchResultCache cache = new SearchResultCache(new SimpleMeterRegistry(), true, 1000, 60);
+
+    @Test
+    void calendarChangeEvictsOnlyOverlappingStays() {
+        SearchResultCache.Key overlapping = cached(SearchRequest.builder().checkIn(MONDAY).checkOut(MONDAY.plusDays(3)).build());
+        SearchResultCache.Key checkOutDay = cached(SearchRequest.builder()
+                .checkIn(MONDAY.minusDays(2)).checkOut(MONDAY.plusDays(5)).location("lyon").build());
+        SearchResultCache.Key before = cached(SearchRequest.builder().checkIn(MONDAY.minusDays(3)).checkOut(MONDAY.plusDays(5)).build());
+        SearchResultCache.Key longStay = cached(SearchRequest.builder().checkIn(MONDAY.minusDays(60)).checkOut(MONDAY.plusDays(60)).build());
+        SearchResultCache.Key undated = cached(SearchRequest.builder().location("paris").build());
+
+        // Nuits du 6 au 8 : le séjour qui part le 6 au matin n'est pas concerné
+        cache.evictDates(MONDAY.plusDays(5), MONDAY.plusDays(7));
+
+        assertThat(cache.get(overlapping)).isPresent();
+        assertThat(cache.get(checkOutDay)).isPresent();
+        assertThat(cache.get(before)).isPresent();
+        assertThat(cache.get(longStay)).isEmpty();
+        assertThat(cache.get(undated)).isPresent();
+
+        cache.evictDates(MONDAY.plusDays(2), MONDAY.plusDays(2));
+
+        assertThat(cache.get(overlapping)).isEmpty();
+        assertThat(cache.get(checkOutDay)).isEmpty();
+        assertThat(cache.get(before)).isEmpty();
+        assertThat(cache.get(undated)).isPresent();
+    }
+
+    @Test
+    void listingChangeEvictsSearchesWhoseLocationAndTypeCanContainIt() {
+        SearchResultCache.Key city = cached(SearchRequest.builder().location("Par").build());
+        SearchResultCache.Key country = cached(SearchRequest.builder().location("france").build());
+        SearchResultCache.Key anywhere = cached(SearchRequest.builder().build());
+        SearchResultCache.Key otherCity = cached(SearchRequest.builder().location("lyon").build());
+        SearchResultCache.Key otherType = cached(SearchRequest.builder().location("paris").propertyType(PropertyType.VILLA).build());
+
+        cache.evictListing(listing());
+
+        assertThat(cache.get(city)).isEmpty();
+        assertThat(cache.get(country)).isEmpty();
+        assertThat(cache.get(anywhere)).isEmpty();
+        assertThat(cache.get(otherCity)).isPresent();
+        assertThat(cache.get(otherType)).isPresent();
+    }
+
+    @Test
+    void ratingChangeEvictsRatingFilteredAndRatingSortedSearches() {
+        SearchRequest paris = SearchRequest.builder().location("paris").build();
+        SearchResultCache.Key filtered = cached(SearchRequest.builder().location("paris").minRating(4).build());
+        SearchResultCache.Key sorted = cache(paris, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "averageRating")));
+        SearchResultCache.Key byPrice = cache(paris, PageRequest.of(0, 20, Sort.by("pricePerNight")));
+
+        cache.evictRatings(listing());
+
+        assertThat(cache.get(filtered)).isEmpty();
+        assertThat(cache.get(sorted)).isEmpty();
+        assertThat(cache.get(byPrice)).isPresent();
+    }
+
+    @Test
+    void releaseByTokenEvictsEveryDatedSearch() {
+        SearchResultCache.Key dated = cached(SearchRequest.builder().checkIn(MONDAY).checkOut(MONDAY.plusDays(1)).build());
+        SearchResultCache.Key undated = cached(SearchRequest.builder().build());
+
+        cache.evictDated();
+
+        assertThat(cache.get(dated)).isEmpty();
+        assertThat(cache.get(undated)).isPresent();
+    }
+
+    private SearchResultCache.Key cached(SearchRequest request) {
+        return cache(request, PageRequest.of(0, 20));
+    }
+
+    private SearchResultCache.Key cache(SearchRequest request, PageRequest pageable) {
+        SearchResultCache.Key key = SearchResultCache.key(request, pageable);
+        cache.put(key, List.of(1L, 2L), 2);
+        return key;
+    }
+
+    private static Property listing() {
+        return TestProperties.active("Loft lumineux", "Paris", "France").build();
+    }
+}
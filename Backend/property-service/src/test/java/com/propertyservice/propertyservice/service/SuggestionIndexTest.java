@@ -0,0 +1,57 @@
+package com.propertyservice.propertyservice.service;
+
+import com.propertyservice.propertyservice.TestProperties;
+import com.propertyservice.propertyservice.dto.SuggestionResponse;
+import com.propertyservice.propertyservice.repository.PropertyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SuggestionIndexTest {
+
+    private final PropertyRepository propertyRepository = mock(PropertyRepository.class);
+    private final SuggestionIndex index = new SuggestionIndex(propertyRepository, new SimpleMeterRegistry(), true, 10);
+
+    @Test
+    void writesCommittedDuringRebuildAreReplayedFromTheDatabase() {
+        // Lecture faite avant deux commits : l'annonce 1 est encore active, l'annonce 2 pas encore
+        when(propertyRepository.findSuggestionFields(any())).thenAnswer(invocation -> {
+            index.remove(1L);
+            index.index(TestProperties.active("Villa Azur", "Nice", "France").id(2L).build());
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[]{1L, "Chalet Blanc", "Chamonix", "France"});
+            return rows;
+        });
+        List<Object[]> replayed = new ArrayList<>();
+        replayed.add(new Object[]{2L, "Villa Azur", "Nice", "France"});
+        when(propertyRepository.findSuggestionFieldsByIdIn(anyCollection(), any())).thenReturn(replayed);
+
+        index.rebuild();
+
+        assertThat(index.suggest("chalet", 10)).isEmpty();
+        assertThat(index.suggest("villa", 10)).extracting(SuggestionResponse::getPropertyId).containsExactly(2L);
+    }
+
+    @Test
+    void writesAfterRebuildAreNotRecordedForTheNextOne() {
+        when(propertyRepository.findSuggestionFields(any())).thenReturn(List.of());
+        index.rebuild();
+        index.index(TestProperties.active("Villa Azur", "Nice", "France").id(2L).build());
+
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{2L, "Villa Azur", "Nice", "France"});
+        when(propertyRepository.findSuggestionFields(any())).thenReturn(rows);
+        when(propertyRepository.findSuggestionFieldsByIdIn(anyCollection(), any())).thenReturn(List.of());
+        index.rebuild();
+
+        assertThat(index.suggest("villa", 10)).extracting(SuggestionResponse::getPropertyId).containsExactly(2L);
+    }
+}
@@ -0,0 +1,44 @@
+-- Plans et temps de la recherche avec dates côté SQL (chemin de repli de SearchService),
+-- à lancer après search-availability-seed.sql :
+--   psql -d property_db -f search-availability-benchmark.sql
+--
+-- Le chemin par index de disponibilité (app.availability.index.enabled=true) ne fait que la
+-- requête 1 (identifiants candidats) puis un test de bits par candidat ; comparer son temps
+-- avec la requête 2 (anti-jointure sur availability_calendar) sur la même ville.
+
+\timing on
+
+-- 1. Candidats d'une ville, identifiants seuls dans l'ordre du tri
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.id FROM properties p
+WHERE p.status = 'ACTIVE' AND lower(p.city) LIKE '%city 7%' AND p.max_guests >= 2
+ORDER BY p.created_at DESC, p.id DESC;
+
+-- 2. Même recherche avec disponibilité sur 5 nuits (NOT EXISTS, PropertySpecifications.availableBetween)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.id FROM properties p
+WHERE p.status = 'ACTIVE' AND lower(p.city) LIKE '%city 7%' AND p.max_guests >= 2
+  AND NOT EXISTS (SELECT 1 FROM availability_calendar a
+                  WHERE a.property_id = p.id
+                    AND a.status IN ('LOCKED', 'BOOKED')
+                    AND a.date BETWEEN CURRENT_DATE + 30 AND CURRENT_DATE + 34)
+ORDER BY p.created_at DESC, p.id DESC
+LIMIT 20;
+
+-- 3. Comptage associé (page 1 d'une réponse Page)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COUNT(*) FROM properties p
+WHERE p.status = 'ACTIVE' AND lower(p.city) LIKE '%city 7%' AND p.max_guests >= 2
+  AND NOT EXISTS (SELECT 1 FROM availability_calendar a
+                  WHERE a.property_id = p.id
+                    AND a.status IN ('LOCKED', 'BOOKED')
+                    AND a.date BETWEEN CURRENT_DATE + 30 AND CURRENT_DATE + 34);
+
+-- 4. Reconstruction de l'index de disponibilité (AvailabilityIndex.rebuild)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT a.property_id, a.date FROM availability_calendar a
+WHERE a.status IN ('LOCKED', 'BOOKED') AND a.date BETWEEN CURRENT_DATE AND CURRENT_DATE + 730;
+
+-- Nettoyage
+-- DELETE FROM availability_calendar WHERE property_id IN (SELECT id FROM properties WHERE title LIKE 'Bench listing %');
+-- DELETE FROM properties WHERE title LIKE 'Bench listing %';
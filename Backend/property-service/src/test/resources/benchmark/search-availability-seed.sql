@@ -0,0 +1,54 @@
+-- Jeu de données de charge pour la recherche avec dates (property_db, base jetable !)
+-- 100 000 annonces ACTIVE réparties sur 50 villes, 365 nuits chacune (~36,5 M lignes de calendrier),
+-- une semaine sur trois contient un séjour BOOKED de 1 à 7 nuits.
+--   psql -d property_db -f search-availability-seed.sql
+
+\set properties 100000
+\set days 365
+
+BEGIN;
+
+INSERT INTO properties (title, description, type, street, city, state, zip_code, country,
+                        price_per_night, security_deposit, max_guests, bedrooms, bathrooms,
+                        owner_id, owner_wallet_address, status, min_stay_nights, cancellation_policy_days,
+                        instant_bookable, rating_sum, rating_count, created_at, updated_at)
+SELECT 'Bench listing ' || g,
+       'Generated for the availability search benchmark',
+       (ARRAY['APARTMENT','HOUSE','VILLA','CONDO','STUDIO','LOFT','TOWNHOUSE','BUNGALOW','CABIN','CASTLE'])[1 + g % 10],
+       g || ' bench street',
+       'City ' || (g % 50),
+       NULL,
+       NULL,
+       (ARRAY['France','Morocco','Spain','Italy','Portugal'])[1 + g % 5],
+       round((0.01 + random() * 0.5)::numeric, 4),
+       0,
+       1 + g % 8,
+       1 + g % 5,
+       1 + g % 3,
+       1 + g % 5000,
+       '0x' || lpad(to_hex(g), 40, '0'),
+       'ACTIVE',
+       1,
+       7,
+       g % 2 = 0,
+       0,
+       0,
+       now() - (g || ' minutes')::interval,
+       now()
+FROM generate_series(1, :properties) AS g;
+
+-- Stockage dense : une ligne par nuit et par annonce, séjours tirés par semaine (hash déterministe)
+INSERT INTO availability_calendar (property_id, date, status, price_multiplier)
+SELECT p.id,
+       CURRENT_DATE + d,
+       CASE WHEN abs(hashint8(p.id * 53 + d / 7)) % 10 < 3 AND d % 7 < 1 + abs(hashint8(p.id + d / 7)) % 7
+            THEN 'BOOKED' ELSE 'AVAILABLE' END,
+       1.00
+FROM properties p
+CROSS JOIN generate_series(0, :days - 1) AS d
+WHERE p.title LIKE 'Bench listing %';
+
+COMMIT;
+
+ANALYZE properties;
+ANALYZE availability_calendar;
@@ -0,0 +1,93 @@
+-- Base telle que la laissait l'arbre d'origine (ddl-auto: update, Hibernate 6) : noms de
+-- contraintes générés, pas de colonnes de notes, pas d'outbox, aucun index secondaire.
+-- Sert de point de départ à BaselineSchemaMigrationTest.
+
+create table properties (
+    id bigint generated by default as identity,
+    bathrooms integer not null,
+    bedrooms integer not null,
+    cancellation_policy_days integer not null,
+    city varchar(255),
+    country varchar(255),
+    latitude float(53),
+    longitude float(53),
+    state varchar(255),
+    street varchar(255),
+    zip_code varchar(255),
+    created_at timestamp(6),
+    description TEXT,
+    instant_bookable boolean,
+    max_guests integer not null,
+    min_stay_nights integer not null,
+    owner_id bigint not null,
+    owner_wallet_address varchar(255) not null,
+    ownership_document_url varchar(255),
+    price_per_night numeric(38,18) not null,
+    security_deposit numeric(38,18) not null,
+    status varchar(255) not null check (status in ('PENDING_ADMIN','PENDING_PAYMENT','ACTIVE','REJECTED')),
+    title varchar(255) not null,
+    type varchar(255) not null check (type in ('APARTMENT','HOUSE','VILLA','CONDO','STUDIO','LOFT','TOWNHOUSE','BUNGALOW','CABIN','CASTLE')),
+    updated_at timestamp(6),
+    primary key (id)
+);
+
+create table property_amenities (
+    property_id bigint not null,
+    amenity varchar(255)
+);
+
+create table property_images (
+    id bigint generated by default as identity,
+    caption varchar(255),
+    created_at timestamp(6),
+    display_order integer not null,
+    image_url varchar(255) not null,
+    property_id bigint not null,
+    primary key (id)
+);
+
+create table reviews (
+    id bigint generated by default as identity,
+    comment TEXT,
+    created_at timestamp(6),
+    rating integer not null check ((rating>=1) and (rating<=5)),
+    updated_at timestamp(6),
+    user_id bigint not null,
+    property_id bigint not null,
+    primary key (id)
+);
+
+create table availability_calendar (
+    id bigint generated by default as identity,
+    date date not null,
+    lock_expires_at timestamp(6),
+    lock_token varchar(255),
+    price_multiplier numeric(5,2),
+    status varchar(255) not null check (status in ('AVAILABLE','LOCKED','BOOKED')),
+    tenant_id bigint,
+    property_id bigint not null,
+    primary key (id),
+    constraint UKq7w1m1u2yb4g0lxbx7lnu5h2i unique (property_id, date)
+);
+
+alter table if exists property_amenities
+    add constraint FK2xq6kq1tc7y9cg5l1qjwn3q4e foreign key (property_id) references properties;
+alter table if exists property_images
+    add constraint FK9h1vu4ybdrtf7s6xl2kbw3v6r foreign key (property_id) references properties;
+alter table if exists reviews
+    add constraint FKl2j1h0u7s8qbf8n1w5n9gw2pe foreign key (property_id) references properties;
+alter table if exists availability_calendar
+    add constraint FK3e5y4g1xjv8b0w6h7l4u0m2dn foreign key (property_id) references properties;
+
+-- Données existantes : une annonce notée deux fois, dont les agrégats doivent être recalculés par V4
+insert into properties (id, bathrooms, bedrooms, cancellation_policy_days, city, country, max_guests,
+                        min_stay_nights, owner_id, owner_wallet_address, price_per_night, security_deposit,
+                        status, title, type, created_at)
+values (1, 1, 2, 7, 'Lyon', 'France', 4, 1, 10, '0xowner', 0.05, 0, 'ACTIVE', 'Appartement Bellecour', 'APARTMENT',
+        now());
+
+insert into reviews (rating, user_id, property_id, created_at) values (4, 20, 1, now()), (5, 21, 1, now());
+
+insert into availability_calendar (date, status, property_id) values (current_date + 1, 'BOOKED', 1);
+
+select setval(pg_get_serial_sequence('properties', 'id'), 1);
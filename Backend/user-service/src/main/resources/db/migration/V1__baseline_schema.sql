@@ -0,0 +1,43 @@
+-- Schéma de l'arbre d'origine, tel que ddl-auto le créait. Une base existante est reprise
+-- en version 1 (baseline-version) : ce script ne s'exécute que sur une base vide, les
+-- changements ultérieurs passent par des migrations incrémentales (V2+).
+
+CREATE TABLE users (
+    id                          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    first_name                  VARCHAR(255) NOT NULL,
+    last_name                   VARCHAR(255) NOT NULL,
+    email                       VARCHAR(255) NOT NULL,
+    phone                       VARCHAR(255),
+    password                    VARCHAR(255),
+    description                 VARCHAR(500),
+    date_naissance              DATE,
+    country                     VARCHAR(255),
+    city                        VARCHAR(255),
+    email_verification_token    VARCHAR(255),
+    email_token_expiry          TIMESTAMP(6),
+    email_verified              BOOLEAN      NOT NULL,
+    role                        VARCHAR(255) NOT NULL,
+    is_enabled                  BOOLEAN      NOT NULL,
+    created_at                  TIMESTAMP(6),
+    updated_at                  TIMESTAMP(6),
+    last_login                  TIMESTAMP(6),
+    ethereum_address            VARCHAR(42),
+    is_wallet_verified          BOOLEAN      NOT NULL,
+    wallet_verification_message VARCHAR(500),
+    photo_url                   VARCHAR(500),
+    kyc_recto_url               VARCHAR(500),
+    kyc_verso_url               VARCHAR(500),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_phone UNIQUE (phone),
+    -- Sert aussi d'index à findByEthereumAddress / existsByEthereumAddress (connexion wallet)
+    CONSTRAINT uk_users_ethereum_address UNIQUE (ethereum_address)
+);
+
+CREATE TABLE refresh_tokens (
+    token       VARCHAR(255) PRIMARY KEY,
+    user_id     BIGINT       NOT NULL REFERENCES users (id),
+    expiry_date TIMESTAMP(6) NOT NULL,
+    revoked     BOOLEAN      NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_refresh_tokens_user_id UNIQUE (user_id)
+);
@@ -0,0 +1,10 @@
+-- users(ethereum_address) est déjà indexé par sa contrainte unique (V1, ou celle créée par ddl-auto)
+
+-- UserRepository.findByEmailVerificationToken (lien de vérification d'email)
+CREATE INDEX IF NOT EXISTS idx_users_email_verification_token
+    ON users (email_verification_token)
+    WHERE email_verification_token IS NOT NULL;
+
+-- RefreshTokenRepository.deleteExpiredTokens
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expiry_date
+    ON refresh_tokens (expiry_date);
@@ -0,0 +1,69 @@
+package com.userservice.userservice.migration;
+
+import com.userservice.userservice.TestcontainersConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Les finders de UserRepository et RefreshTokenRepository passent par les index de V1 et V2
+ * sur un volume réaliste : les données générées et le plan (EXPLAIN FORMAT JSON) sont annulés
+ * en fin de test.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Transactional
+class RepositoryIndexUsageTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 100k utilisateurs dont la moitié avec un wallet, 1 % avec un jeton de vérification en cours
+    @BeforeEach
+    void seedUsers() {
+        jdbcTemplate.execute("""
+                INSERT INTO users (first_name, last_name, email, email_verified, role, is_enabled, is_wallet_verified,
+                                   ethereum_address, email_verification_token, email_token_expiry)
+                SELECT 'First', 'Last', 'user' || g || '@example.com', true, 'ROLE_TENANT', true, g % 2 = 0,
+                       CASE WHEN g % 2 = 0 THEN '0x' || lpad(to_hex(g), 40, '0') END,
+                       CASE WHEN g % 100 = 0 THEN md5(g::text) END,
+                       CASE WHEN g % 100 = 0 THEN now() + INTERVAL '1 day' END
+                FROM generate_series(1, 100000) AS g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO refresh_tokens (token, user_id, expiry_date, revoked, created_at)
+                SELECT md5('token' || u.id), u.id, now() + (u.id % 100 - 1) * INTERVAL '1 day', false, now()
+                FROM users u
+                """);
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE refresh_tokens");
+    }
+
+    @Test
+    void walletLookupUsesTheUniqueConstraint() {
+        assertIndexUsed("SELECT * FROM users WHERE ethereum_address = '0x' || lpad(to_hex(4242), 40, '0')",
+                "uk_users_ethereum_address");
+    }
+
+    @Test
+    void verificationTokenLookupUsesThePartialIndex() {
+        assertIndexUsed("SELECT * FROM users WHERE email_verification_token = md5('4200')",
+                "idx_users_email_verification_token");
+    }
+
+    @Test
+    void expiredRefreshTokenPurgeUsesTheExpiryIndex() {
+        assertIndexUsed("SELECT * FROM refresh_tokens WHERE expiry_date < now()", "idx_refresh_tokens_expiry_date");
+    }
+
+    private void assertIndexUsed(String query, String indexName) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + query, String.class);
+        assertThat(plan).as("plan of %s", query).contains("\"Index Name\": \"" + indexName + "\"");
+    }
+}